@@ -0,0 +1,67 @@
+package ru.practicum.shareit.benchmarks;
+
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Детерминированные сущности для бенчмарков, без обращения к базе данных.
+ */
+final class Fixtures {
+    static final LocalDateTime NOW = LocalDateTime.of(2023, 1, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        return new User(id, "User " + id, "user" + id + "@mail.com");
+    }
+
+    static ItemRequest request(long id) {
+        return new ItemRequest(id, "Request description " + id, user(id + 1), NOW.minusDays(id));
+    }
+
+    static Item item(long id) {
+        return new Item(id, "Item " + id, "Item description " + id, true, user(id % 10 + 1), request(id % 5 + 1));
+    }
+
+    static Booking booking(long id) {
+        final LocalDateTime start = NOW.plusHours(id);
+        return new Booking(id, start, start.plusDays(1), item(id), user(id + 100), BookingStatus.APPROVED);
+    }
+
+    static Comment comment(long id, Item item) {
+        return new Comment(id, "Comment " + id, item, user(id + 200), NOW.minusHours(id));
+    }
+
+    static List<Item> items(int count) {
+        final List<Item> items = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            items.add(item(id));
+        }
+        return items;
+    }
+
+    static List<Booking> bookings(int count) {
+        final List<Booking> bookings = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            bookings.add(booking(id));
+        }
+        return bookings;
+    }
+
+    static List<Comment> comments(int count, Item item) {
+        final List<Comment> comments = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            comments.add(comment(id, item));
+        }
+        return comments;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сериализация страниц ответа тем же ObjectMapper, что настраивает Spring Boot по умолчанию.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+    @Param({"10", "100"})
+    int size;
+
+    ObjectMapper mapper;
+    List<ItemInfoDto> items;
+    List<BookingInfoDto> bookings;
+
+    @Setup
+    public void setup() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        items = Fixtures.items(size).stream()
+                .map(this::toItemInfoDto)
+                .collect(Collectors.toList());
+        bookings = Fixtures.bookings(size).stream()
+                .map(BookingMapper::toBookingInfoDto)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public String writeItemInfoDtoList() throws JsonProcessingException {
+        return mapper.writeValueAsString(items);
+    }
+
+    @Benchmark
+    public String writeBookingInfoDtoList() throws JsonProcessingException {
+        return mapper.writeValueAsString(bookings);
+    }
+
+    private ItemInfoDto toItemInfoDto(Item item) {
+        return ItemMapper.toItemInfoDto(item, Fixtures.booking(item.getId()), null, Fixtures.comments(2, item));
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.item.ItemInfoDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование сущностей в DTO, которые отдаются в ответах сервера.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    @Param({"0", "10"})
+    int comments;
+
+    Item item;
+    Booking lastBooking;
+    Booking nextBooking;
+    List<Comment> itemComments;
+    Booking booking;
+    ItemRequest request;
+    List<Item> requestItems;
+
+    @Setup
+    public void setup() {
+        item = Fixtures.item(1);
+        lastBooking = Fixtures.booking(1);
+        nextBooking = Fixtures.booking(2);
+        itemComments = Fixtures.comments(comments, item);
+        booking = Fixtures.booking(3);
+        request = Fixtures.request(1);
+        requestItems = Fixtures.items(comments);
+    }
+
+    @Benchmark
+    public ItemInfoDto toItemInfoDto() {
+        return ItemMapper.toItemInfoDto(item, lastBooking, nextBooking, itemComments);
+    }
+
+    @Benchmark
+    public BookingInfoDto toBookingInfoDto() {
+        return BookingMapper.toBookingInfoDto(booking);
+    }
+
+    @Benchmark
+    public ItemRequestInfoDto toItemRequestInfoDto() {
+        return ItemRequestMapper.toItemRequestInfoDto(request, requestItems);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.MyPageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Создание страницы запроса из параметров from и size, как это делают контроллеры.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageRequestBenchmark {
+    @Param({"0", "95"})
+    int from;
+
+    @Param({"10"})
+    int size;
+
+    final Sort sort = Sort.by(Sort.Direction.DESC, "start");
+
+    @Benchmark
+    public MyPageRequest unsorted() {
+        return new MyPageRequest(from, size, Sort.unsorted());
+    }
+
+    @Benchmark
+    public MyPageRequest sorted() {
+        return new MyPageRequest(from, size, sort);
+    }
+
+    @Benchmark
+    public long offset() {
+        return new MyPageRequest(from, size, Sort.unsorted()).getOffset();
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Страница бронирований и результатов поиска на базе H2: загрузка сущностей с преобразованием в DTO
+ * против выборки DTO-проекцией. Выделение памяти на запрос показывает профилировщик {@code gc}
+ * ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final long BOOKER_ID = 2L;
+
+    private static final String BOOKING_ORDER = "order by b.start desc, b.id desc";
+    private static final String SEARCH_FILTER = "where upper(i.name) like upper(concat('%', :text, '%')) " +
+            "and i.available = true order by i.id";
+
+    ConfigurableApplicationContext context;
+    EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingInfoDto> bookingEntities() {
+        entityManager.clear();
+        return entityManager
+                .createQuery("select b from Booking b join fetch b.item join fetch b.booker " +
+                        "where b.booker.id = :booker " + BOOKING_ORDER, Booking.class)
+                .setParameter("booker", BOOKER_ID)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList().stream()
+                .map(BookingMapper::toBookingInfoDto)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BookingInfoDto> bookingProjection() {
+        entityManager.clear();
+        return entityManager
+                .createQuery(BookingRepository.BOOKING_INFO_QUERY +
+                        "where u.id = :booker " + BOOKING_ORDER, BookingInfoDto.class)
+                .setParameter("booker", BOOKER_ID)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<ItemDto> searchEntities() {
+        entityManager.clear();
+        return entityManager
+                .createQuery("select i from Item i " + SEARCH_FILTER, Item.class)
+                .setParameter("text", "item")
+                .setMaxResults(PAGE_SIZE)
+                .getResultList().stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ItemDto> searchProjection() {
+        entityManager.clear();
+        return entityManager
+                .createQuery(ItemRepository.ITEM_DTO_QUERY + SEARCH_FILTER, ItemDto.class)
+                .setParameter("text", "item")
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'Owner', 'owner@mail.com'), "
+                + "(?, 'Booker', 'booker@mail.com')", BOOKER_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner_id) "
+                + "SELECT x, 'Item ' || x, 'Item description ' || x, TRUE, 1 FROM system_range(1, ?)", PAGE_SIZE);
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                + "SELECT DATEADD('DAY', x, TIMESTAMP '2023-01-01 12:00:00'), "
+                + "DATEADD('DAY', x + 1, TIMESTAMP '2023-01-01 12:00:00'), x, ?, 'APPROVED' "
+                + "FROM system_range(1, ?)", BOOKER_ID, PAGE_SIZE);
+    }
+}
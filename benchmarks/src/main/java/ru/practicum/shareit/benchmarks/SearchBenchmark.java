@@ -0,0 +1,79 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.item.ItemService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск вещей по тексту на заполненной базе H2 — через SQL-запрос и через индекс триграмм.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    private static final int USERS = 100;
+    private static final String VOCABULARY =
+            "ARRAY['drill', 'saw', 'tent', 'bike', 'ladder', 'camera', 'kayak', 'projector']";
+
+    @Param({"false", "true"})
+    boolean index;
+
+    @Param({"10000"})
+    int items;
+
+    @Param({"drill", "with stand", "missing"})
+    String text;
+
+    ConfigurableApplicationContext context;
+    ItemService itemService;
+    MyPageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "--shareit.search.index.enabled=" + index,
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(ItemSearchIndex.class).build();
+        itemService = context.getBean(ItemService.class);
+        pageRequest = new MyPageRequest(0, 20, Sort.unsorted());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> searchItem() {
+        return itemService.searchItem(text, pageRequest);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (name, email) "
+                + "SELECT 'User ' || x, 'user' || x || '@mail.com' FROM system_range(1, ?)", USERS);
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id) "
+                + "SELECT " + VOCABULARY + "[MOD(x, 8) + 1] || ' ' || x, "
+                + "'Good ' || " + VOCABULARY + "[MOD(x * 3, 8) + 1] || ' with stand and case', "
+                + "MOD(x, 10) <> 0, MOD(x, ?) + 1 "
+                + "FROM system_range(1, ?)", USERS, items);
+    }
+}
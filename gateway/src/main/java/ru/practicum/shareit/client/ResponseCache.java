@@ -0,0 +1,165 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ограниченный по размеру и времени жизни кеш успешных ответов на идемпотентные GET-запросы.
+ * Ключ — путь ресурса с параметрами и {@code X-Sharer-User-Id}. Изменения, прошедшие через этот экземпляр
+ * шлюза, инвалидируют затронутые ресурсы, а время жизни ограничивает устаревание после изменений
+ * через другие экземпляры.
+ * <p>
+ * Инвалидация не перебирает кеш: у каждого префикса пути ресурса ({@code /items}, {@code /items/search})
+ * есть счётчик поколений, общий для префиксов с одинаковым хешем. Изменение увеличивает счётчики своих
+ * ресурсов, а запись в кеше помнит значения счётчиков, прочитанные до запроса к серверу, и при
+ * расхождении считается промахом. Поэтому ответ GET, начатого до изменения и пришедшего после
+ * инвалидации, в кеш не попадает.
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<Key, Entry> cache;
+    private final ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final boolean enabled;
+
+    @Autowired
+    public ResponseCache(@Value("${shareit.cache.enabled}") boolean enabled,
+                         @Value("${shareit.cache.max-size}") long maxSize,
+                         @Value("${shareit.cache.ttl}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this(enabled, maxSize, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    ResponseCache(boolean enabled, long maxSize, Duration ttl, MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats(() -> stats)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gatewayResponses");
+    }
+
+    /**
+     * Значения счётчиков поколений ресурса; читаются до запроса к серверу и передаются в
+     * {@link #put(String, Long, ResponseEntity, Generation)} вместе с ответом.
+     */
+    public Generation generation(String resource) {
+        int[] stripes = stripes(resource);
+        long[] values = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            values[i] = generations.get(stripes[i]);
+        }
+        return new Generation(stripes, values);
+    }
+
+    @Nullable
+    public ResponseEntity<Object> get(String resource, @Nullable Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        Key key = new Key(resource, userId);
+        Entry entry = cache.asMap().get(key);
+        if (entry != null && entry.generation.isCurrent()) {
+            stats.recordHits(1);
+            return entry.response;
+        }
+        if (entry != null) {
+            cache.asMap().remove(key, entry);
+        }
+        stats.recordMisses(1);
+        return null;
+    }
+
+    public void put(String resource, @Nullable Long userId, ResponseEntity<Object> response, Generation generation) {
+        if (enabled && generation.isCurrent()) {
+            cache.put(new Key(resource, userId), new Entry(response, generation));
+        }
+    }
+
+    /**
+     * Инвалидирует закешированные ответы на указанные ресурсы и всё, что под ними,
+     * например {@code /items} инвалидирует {@code /items/1} и {@code /items/search?text=...}.
+     */
+    public void evict(String... resources) {
+        if (!enabled) {
+            return;
+        }
+        for (String resource : resources) {
+            generations.incrementAndGet(stripe(resource));
+        }
+        log.debug("Evicted cached responses under {}", (Object) resources);
+    }
+
+    /**
+     * Префиксы пути ресурса без параметров: {@code /items/search?text=a} даёт {@code /items}
+     * и {@code /items/search}.
+     */
+    private static int[] stripes(String resource) {
+        int query = resource.indexOf('?');
+        String path = (query >= 0) ? resource.substring(0, query) : resource;
+        List<String> prefixes = new ArrayList<>();
+        for (int slash = path.indexOf('/', 1); slash > 0; slash = path.indexOf('/', slash + 1)) {
+            prefixes.add(path.substring(0, slash));
+        }
+        prefixes.add(path);
+        return prefixes.stream().mapToInt(ResponseCache::stripe).toArray();
+    }
+
+    private static int stripe(String prefix) {
+        return Math.floorMod(prefix.hashCode(), GENERATION_STRIPES);
+    }
+
+    public final class Generation {
+        private final int[] stripes;
+        private final long[] values;
+
+        private Generation(int[] stripes, long[] values) {
+            this.stripes = stripes;
+            this.values = values;
+        }
+
+        boolean isCurrent() {
+            for (int i = 0; i < stripes.length; i++) {
+                if (generations.get(stripes[i]) != values[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final ResponseEntity<Object> response;
+        private final Generation generation;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final String resource;
+        private final Long userId;
+    }
+}
@@ -7,9 +7,11 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeoutException;
 
 @RestControllerAdvice
 @Slf4j
@@ -41,6 +43,26 @@ public class GatewayErrorHandler {
         );
     }
 
+    /**
+     * Запрос к серверу ShareIt не получил ответа: истечение таймаута соединения или ответа — 504,
+     * отказ или разрыв соединения — 502.
+     */
+    @ExceptionHandler
+    public ResponseEntity<?> handleServerRequestException(final WebClientRequestException exception) {
+        if (isTimeout(exception)) {
+            log.warn("Сервер ShareIt не ответил вовремя: {}", exception.getMessage());
+            return new ResponseEntity<>(
+                    Map.of("Ошибка (сервер ShareIt не ответил вовремя)", exception.getMessage()),
+                    HttpStatus.GATEWAY_TIMEOUT
+            );
+        }
+        log.warn("Ошибка соединения с сервером ShareIt: {}", exception.getMessage());
+        return new ResponseEntity<>(
+                Map.of("Ошибка (нет соединения с сервером ShareIt)", exception.getMessage()),
+                HttpStatus.BAD_GATEWAY
+        );
+    }
+
     @ExceptionHandler
     public ResponseEntity<?> handleThrowable(final Exception exception) {
         log.warn("Internal server error: {}", exception.getMessage());
@@ -49,4 +71,15 @@ public class GatewayErrorHandler {
                 HttpStatus.INTERNAL_SERVER_ERROR
         );
     }
+
+    private static boolean isTimeout(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException
+                    || cause instanceof io.netty.channel.ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -2,15 +2,18 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,49 +21,57 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ClientHttpConnector connector, ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .clientConnector(connector)
+                        .build(),
+                responseCache,
+                API_PREFIX
         );
     }
 
-    public ResponseEntity<Object> createItem(ItemRequestDto requestDto, Long userId) {
-        return post("", userId, requestDto);
+    public Mono<ResponseEntity<Object>> createItem(ItemRequestDto requestDto, Long userId) {
+        Mono<ResponseEntity<Object>> response = post("", userId, requestDto);
+        return (requestDto.getRequestId() != null)
+                ? evicting(response, API_PREFIX + "/search", "/requests/" + requestDto.getRequestId())
+                : evicting(response, API_PREFIX + "/search");
     }
 
-    public ResponseEntity<Object> createComment(Long itemId, CommentRequestDto requestDto, Long userId) {
-        return post("/" + itemId + "/comment", userId, requestDto);
+    public Mono<ResponseEntity<Object>> createComment(Long itemId, CommentRequestDto requestDto, Long userId) {
+        return evicting(post("/" + itemId + "/comment", userId, requestDto), API_PREFIX + "/" + itemId);
     }
 
-    public ResponseEntity<Object> updateItem(Long itemId, ItemRequestDto requestDto, Long userId) {
-        return patch("/" + itemId, userId, requestDto);
+    public Mono<ResponseEntity<Object>> updateItem(Long itemId, ItemRequestDto requestDto, Long userId) {
+        return evicting(patch("/" + itemId, userId, requestDto),
+                API_PREFIX + "/" + itemId, API_PREFIX + "/search", "/requests");
     }
 
-    public ResponseEntity<Object> deleteItem(Long itemId) {
-        return delete("/" + itemId);
+    public Mono<ResponseEntity<Object>> deleteItem(Long itemId) {
+        return evicting(delete("/" + itemId), API_PREFIX + "/" + itemId, API_PREFIX + "/search", "/requests");
     }
 
-    public ResponseEntity<Object> getItem(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItem(Long itemId, Long userId, String ifNoneMatch) {
+        return cachedGet("/" + itemId, userId, null, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getAll(Long userId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+        ));
+        String path = withCursor("?from={from}&size={size}", parameters, after);
+        return get(path, userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchItem(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return cachedGet("/search?text={text}&from={from}&size={size}", null, parameters, null);
     }
 }
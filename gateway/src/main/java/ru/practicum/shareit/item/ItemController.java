@@ -2,10 +2,12 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.Create;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
@@ -22,51 +24,54 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @Validated({Create.class}) @RequestBody ItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @Validated({Create.class}) @RequestBody ItemRequestDto requestDto) {
         log.info("Creating item {}", requestDto);
         return itemClient.createItem(requestDto, userId);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@PathVariable Long itemId,
-                                                @RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @Validated({Create.class}) @RequestBody CommentRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createComment(@PathVariable Long itemId,
+                                                      @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @Validated({Create.class}) @RequestBody CommentRequestDto requestDto) {
         log.info("Creating comment {}", requestDto);
         return itemClient.createComment(itemId, requestDto, userId);
     }
 
     @PatchMapping("/{itemId}")
-    ResponseEntity<Object> updateItem(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
-                                      @RequestBody ItemRequestDto requestDto) {
+    Mono<ResponseEntity<Object>> updateItem(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
+                                            @RequestBody ItemRequestDto requestDto) {
         log.info("Updating itemId={} : {}", itemId, requestDto);
         return itemClient.updateItem(itemId, requestDto, userId);
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItem(@PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> deleteItem(@PathVariable Long itemId) {
         log.info("Deleting itemId={}", itemId);
         return itemClient.deleteItem(itemId);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> getItem(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                String ifNoneMatch) {
         log.info("Get itemId={}", itemId);
-        return itemClient.getItem(itemId, userId);
+        return itemClient.getItem(itemId, userId, ifNoneMatch);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get all items, from={}, size={}", from, size);
-        return itemClient.getAll(userId, from, size);
+    public Mono<ResponseEntity<Object>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                               @RequestParam(name = "after", required = false) String after) {
+        log.info("Get all items, from={}, size={}, after={}", from, size, after);
+        return itemClient.getAll(userId, from, size, after);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestParam String text,
-                                             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> searchItem(@RequestParam String text,
+                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         log.info("Search items by string '{}', from={}, size={}", text, from, size);
         return itemClient.searchItem(text, from, size);
     }
@@ -2,10 +2,12 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.Create;
 
 
@@ -21,30 +23,39 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @PostMapping()
-    public ResponseEntity<Object> createItemRequest(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
-                                                    @Validated({Create.class}) @RequestBody RequestRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createItemRequest(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @Validated({Create.class}) @RequestBody RequestRequestDto requestDto) {
         log.info("Creating Item Request {}", requestDto);
         return requestClient.createItemRequest(requestDto, userId);
     }
 
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getItemRequest(@Positive @PathVariable Long requestId,
-                                                 @Positive @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> getItemRequest(@Positive @PathVariable Long requestId,
+                                                       @Positive @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                       String ifNoneMatch) {
         log.info("Get Item Request Id={}", requestId);
-        return requestClient.getItemRequest(requestId, userId);
+        return requestClient.getItemRequest(requestId, userId, ifNoneMatch);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getAllForUser(@Positive @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Get all requests for user Id={}", userId);
-        return requestClient.getAllForUser(userId);
+    public Mono<ResponseEntity<Object>> getAllForUser(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PositiveOrZero @RequestParam(name = "from", required = false)
+                                                      Integer from,
+                                                      @Positive @RequestParam(name = "size", required = false)
+                                                      Integer size,
+                                                      @RequestParam(name = "after", required = false) String after) {
+        log.info("Get all requests for user Id={}, from={}, size={}, after={}", userId, from, size, after);
+        return requestClient.getAllForUser(userId, from, size, after);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return requestClient.getAll(userId, from, size);
+    public Mono<ResponseEntity<Object>> getAll(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                               @RequestParam(name = "after", required = false) String after) {
+        log.info("Get all requests, from={}, size={}, after={}", from, size, after);
+        return requestClient.getAll(userId, from, size, after);
     }
 }
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.client;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit.cache.enabled=true",
+        "shareit.cache.ttl=1h"
+})
+public class CachingProxyTest {
+    private static final MockWebServer server = new MockWebServer();
+    private static final Map<String, AtomicInteger> serverGets = new ConcurrentHashMap<>();
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private ResponseCache responseCache;
+
+    @DynamicPropertySource
+    static void serverProperties(DynamicPropertyRegistry registry) {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body = "{}";
+                if ("GET".equals(request.getMethod())) {
+                    int count = serverGets.computeIfAbsent(request.getPath(), path -> new AtomicInteger())
+                            .incrementAndGet();
+                    body = "{\"served\":" + count + "}";
+                }
+                return new MockResponse()
+                        .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                        .setHeader(HttpHeaders.ETAG, "\"" + request.getPath().hashCode() + "\"")
+                        .setBody(body);
+            }
+        });
+        registry.add("shareit-server.url", () -> "http://" + server.getHostName() + ":" + server.getPort());
+    }
+
+    @AfterAll
+    static void afterAll() throws IOException {
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        serverGets.clear();
+        responseCache.evict("/items", "/users", "/requests");
+    }
+
+    @Test
+    void repeatedGetIsServedFromCacheTest() {
+        getItem(1L).expectBody().json("{\"served\":1}");
+        getItem(1L).expectBody().json("{\"served\":1}");
+
+        assertEquals(1, serverGets("/items/1"));
+    }
+
+    @Test
+    void cachedResponsesAreKeptPerUserTest() {
+        getItem(1L).expectBody().json("{\"served\":1}");
+        getItem(2L).expectBody().json("{\"served\":2}");
+        getItem(1L).expectBody().json("{\"served\":1}");
+
+        assertEquals(2, serverGets("/items/1"));
+    }
+
+    @Test
+    void cachedResponseMatchingIfNoneMatchIsNotModifiedTest() {
+        String eTag = getItem(1L).returnResult(String.class).getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/items/1")
+                .header("X-Sharer-User-Id", "1")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag);
+
+        assertEquals(1, serverGets("/items/1"));
+    }
+
+    @ParameterizedTest(name = "{2} {3} evicts {0}")
+    @MethodSource("writes")
+    void writeEvictsCachedResponsesTest(String cachedPath, Long cachedUserId,
+                                        HttpMethod method, String writePath, String body) {
+        get(cachedPath, cachedUserId).expectStatus().isOk();
+        get(cachedPath, cachedUserId).expectStatus().isOk();
+        assertEquals(1, serverGets(cachedPath));
+
+        WebTestClient.RequestBodySpec write = webTestClient.method(method).uri(writePath)
+                .header("X-Sharer-User-Id", "1")
+                .header(HttpHeaders.CONTENT_TYPE, "application/json");
+        ((body != null) ? write.bodyValue(body) : write).exchange().expectStatus().isOk();
+
+        get(cachedPath, cachedUserId).expectStatus().isOk();
+        assertEquals(2, serverGets(cachedPath));
+    }
+
+    private static Stream<Arguments> writes() {
+        String item = "{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}";
+        String itemForRequest = "{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true,"
+                + "\"requestId\":5}";
+        String booking = "{\"itemId\":1,\"start\":\"" + LocalDateTime.now().plusDays(1)
+                + "\",\"end\":\"" + LocalDateTime.now().plusDays(2) + "\"}";
+        return Stream.of(
+                Arguments.of("/items/search?text=drill&from=0&size=10", null, HttpMethod.POST, "/items", item),
+                Arguments.of("/requests/5", 1L, HttpMethod.POST, "/items", itemForRequest),
+                Arguments.of("/items/1", 1L, HttpMethod.POST, "/items/1/comment", "{\"text\":\"Отлично\"}"),
+                Arguments.of("/items/1", 1L, HttpMethod.PATCH, "/items/1", "{\"name\":\"Дрель\"}"),
+                Arguments.of("/items/search?text=drill&from=0&size=10", null,
+                        HttpMethod.PATCH, "/items/1", "{\"name\":\"Дрель\"}"),
+                Arguments.of("/requests/5", 1L, HttpMethod.PATCH, "/items/1", "{\"name\":\"Дрель\"}"),
+                Arguments.of("/items/1", 1L, HttpMethod.DELETE, "/items/1", null),
+                Arguments.of("/items/1", 1L, HttpMethod.POST, "/bookings", booking),
+                Arguments.of("/items/1", 1L, HttpMethod.PATCH, "/bookings/1?approved=true", null),
+                Arguments.of("/users/1", null, HttpMethod.PATCH, "/users/1", "{\"name\":\"Новое имя\"}"),
+                Arguments.of("/items/1", 1L, HttpMethod.PATCH, "/users/1", "{\"name\":\"Новое имя\"}"),
+                Arguments.of("/users/1", null, HttpMethod.DELETE, "/users/1", null),
+                Arguments.of("/requests/5", 1L, HttpMethod.DELETE, "/users/1", null)
+        );
+    }
+
+    private WebTestClient.ResponseSpec getItem(long userId) {
+        return get("/items/1", userId).expectStatus().isOk();
+    }
+
+    private WebTestClient.ResponseSpec get(String path, Long userId) {
+        WebTestClient.RequestHeadersSpec<?> request = webTestClient.get().uri(path);
+        if (userId != null) {
+            request.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return request.exchange();
+    }
+
+    private static int serverGets(String path) {
+        AtomicInteger count = serverGets.get(path);
+        return (count != null) ? count.get() : 0;
+    }
+}
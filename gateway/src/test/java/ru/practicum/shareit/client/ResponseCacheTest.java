@@ -0,0 +1,145 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final ResponseEntity<Object> response = ResponseEntity.ok("{\"id\":1}");
+    private final ResponseEntity<Object> otherResponse = ResponseEntity.ok("{\"id\":2}");
+    private MeterRegistry meterRegistry;
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        responseCache = new ResponseCache(true, 100, TTL, meterRegistry, nanos::get);
+    }
+
+    @Test
+    void getReturnsCachedResponseTest() {
+        assertNull(responseCache.get("/items/1", 1L));
+
+        cache("/items/1", 1L, response);
+
+        assertSame(response, responseCache.get("/items/1", 1L));
+        assertNull(responseCache.get("/items/2", 1L));
+    }
+
+    @Test
+    void responsesAreCachedPerUserTest() {
+        cache("/items/1", 1L, response);
+        cache("/items/1", 2L, otherResponse);
+
+        assertSame(response, responseCache.get("/items/1", 1L));
+        assertSame(otherResponse, responseCache.get("/items/1", 2L));
+        assertNull(responseCache.get("/items/1", 3L));
+        assertNull(responseCache.get("/items/1", null));
+    }
+
+    @Test
+    void responsesExpireAfterTtlTest() {
+        cache("/users/1", null, response);
+
+        nanos.addAndGet(TTL.minusSeconds(1).toNanos());
+        assertSame(response, responseCache.get("/users/1", null));
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertNull(responseCache.get("/users/1", null));
+    }
+
+    @Test
+    void evictRemovesResourceAndEverythingBelowItTest() {
+        cache("/items/1", 1L, response);
+        cache("/items/search?text=a&from=0&size=10", null, response);
+        cache("/users/1", null, response);
+
+        responseCache.evict("/items/search");
+
+        assertSame(response, responseCache.get("/items/1", 1L));
+        assertNull(responseCache.get("/items/search?text=a&from=0&size=10", null));
+
+        responseCache.evict("/items");
+
+        assertNull(responseCache.get("/items/1", 1L));
+        assertSame(response, responseCache.get("/users/1", null));
+    }
+
+    @Test
+    void evictDoesNotTouchSiblingResourcesTest() {
+        cache("/items/1", 1L, response);
+        cache("/items/10", 1L, response);
+
+        responseCache.evict("/items/10");
+
+        assertSame(response, responseCache.get("/items/1", 1L));
+        assertNull(responseCache.get("/items/10", 1L));
+    }
+
+    @Test
+    void responseReadBeforeEvictionIsNotCachedTest() {
+        ResponseCache.Generation generation = responseCache.generation("/items/1");
+
+        responseCache.evict("/items");
+        responseCache.put("/items/1", 1L, response, generation);
+
+        assertNull(responseCache.get("/items/1", 1L));
+
+        cache("/items/1", 1L, otherResponse);
+        assertSame(otherResponse, responseCache.get("/items/1", 1L));
+    }
+
+    @Test
+    void entryCachedBeforeEvictionIsStaleTest() {
+        ResponseCache.Generation generation = responseCache.generation("/requests/1");
+        responseCache.put("/requests/1", 1L, response, generation);
+
+        responseCache.evict("/requests/1");
+
+        assertNull(responseCache.get("/requests/1", 1L));
+    }
+
+    @Test
+    void disabledCacheStoresNothingTest() {
+        ResponseCache disabled = new ResponseCache(false, 100, TTL, new SimpleMeterRegistry(), nanos::get);
+
+        disabled.put("/items/1", 1L, response, disabled.generation("/items/1"));
+
+        assertNull(disabled.get("/items/1", 1L));
+    }
+
+    @Test
+    void hitsAndMissesArePublishedAsMetricsTest() {
+        responseCache.get("/items/1", 1L);
+        cache("/items/1", 1L, response);
+        responseCache.get("/items/1", 1L);
+        responseCache.get("/items/1", 1L);
+        responseCache.evict("/items/1");
+        responseCache.get("/items/1", 1L);
+
+        assertEquals(2.0, gets("hit"));
+        assertEquals(2.0, gets("miss"));
+    }
+
+    private void cache(String resource, Long userId, ResponseEntity<Object> value) {
+        responseCache.put(resource, userId, value, responseCache.generation(resource));
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "gatewayResponses")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.client;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.QueueDispatcher;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit.cache.enabled=false",
+        "shareit-server.http-client.read-timeout=500ms"
+})
+public class ServerProxyTest {
+    private static final MockWebServer server = new MockWebServer();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void serverProperties(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://" + server.getHostName() + ":" + server.getPort());
+    }
+
+    @AfterAll
+    static void afterAll() throws IOException {
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void beforeEach() throws InterruptedException {
+        server.setDispatcher(new QueueDispatcher());
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // запросы предыдущих тестов не должны попасть в проверки
+        }
+    }
+
+    @Test
+    void passesServerResponseThroughTest() throws InterruptedException {
+        byte[] body = "{\"Ошибка (объект не найден)\":\"Вещь с id = 1 не найдена\"}".getBytes(StandardCharsets.UTF_8);
+        server.enqueue(new MockResponse()
+                .setResponseCode(404)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setHeader("X-Shareit-Test", "passthrough")
+                .setBody(new okio.Buffer().write(body)));
+
+        byte[] response = webTestClient.get().uri("/items/1")
+                .header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().valueEquals("X-Shareit-Test", "passthrough")
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_TYPE, "application/json")
+                .expectBody().returnResult().getResponseBody();
+
+        assertArrayEquals(body, response);
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("/items/1", request.getPath());
+        assertEquals("7", request.getHeader("X-Sharer-User-Id"));
+    }
+
+    @Test
+    void passesRequestBodyThroughTest() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setResponseCode(201)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setBody("{\"id\":1,\"name\":\"User\",\"email\":\"user@mail.com\"}"));
+
+        webTestClient.post().uri("/users")
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .bodyValue("{\"name\":\"User\",\"email\":\"user@mail.com\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().json("{\"id\":1,\"name\":\"User\",\"email\":\"user@mail.com\"}");
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("POST", request.getMethod());
+        assertEquals("/users", request.getPath());
+        String body = request.getBody().readUtf8();
+        assertThat(body, containsString("\"name\":\"User\""));
+        assertThat(body, containsString("\"email\":\"user@mail.com\""));
+    }
+
+    @Test
+    void passesNotModifiedThroughTest() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setResponseCode(304)
+                .setHeader(HttpHeaders.ETAG, "\"booking-v1\""));
+
+        byte[] response = webTestClient.get().uri("/bookings/1")
+                .header("X-Sharer-User-Id", "1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"booking-v1\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"booking-v1\"")
+                .expectBody().returnResult().getResponseBody();
+
+        assertNull(response);
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("\"booking-v1\"", request.getHeader(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void passesOptionalPagingOfUserRequestsThroughTest() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setBody("[]"));
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setBody("[]"));
+
+        webTestClient.get().uri("/requests")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/requests?size=5&after=MTA")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertEquals("/requests", server.takeRequest(1, TimeUnit.SECONDS).getPath());
+        assertEquals("/requests?size=5&after=MTA", server.takeRequest(1, TimeUnit.SECONDS).getPath());
+    }
+
+    @Test
+    void propagatesTraceContextToServerTest() throws InterruptedException {
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+        String parentSpanId = "00f067aa0ba902b7";
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setBody("{\"id\":1,\"name\":\"User\",\"email\":\"user@mail.com\"}"));
+
+        webTestClient.get().uri("/users/1")
+                .header("traceparent", "00-" + traceId + "-" + parentSpanId + "-01")
+                .exchange()
+                .expectStatus().isOk();
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        String traceparent = request.getHeader("traceparent");
+        assertThat(traceparent, matchesPattern("00-" + traceId + "-[0-9a-f]{16}-01"));
+        assertNotEquals(parentSpanId, traceparent.split("-")[2]);
+    }
+
+    @Test
+    void mapsDroppedConnectionToBadGatewayTest() {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+
+        webTestClient.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_GATEWAY)
+                .expectBody().jsonPath("$['Ошибка (нет соединения с сервером ShareIt)']").exists();
+    }
+
+    @Test
+    void mapsResponseTimeoutToGatewayTimeoutTest() {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        webTestClient.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT)
+                .expectBody().jsonPath("$['Ошибка (сервер ShareIt не ответил вовремя)']").exists();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Идентификаторы данных, созданных при подготовке прогона.
+ */
+public class Dataset {
+    static final String[] VOCABULARY = {"drill", "saw", "tent", "bike", "ladder", "camera", "kayak", "projector"};
+
+    final List<Long> userIds = new ArrayList<>();
+    final List<Long> itemIds = new ArrayList<>();
+    final List<Long> itemOwnerIds = new ArrayList<>();
+
+    long randomUser(Random random) {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+
+    int randomItem(Random random) {
+        return random.nextInt(itemIds.size());
+    }
+
+    /**
+     * Случайный пользователь, не являющийся владельцем вещи.
+     */
+    long randomBooker(Random random, int item) {
+        long ownerId = itemOwnerIds.get(item);
+        long bookerId;
+        do {
+            bookerId = randomUser(random);
+        } while (bookerId == ownerId);
+        return bookerId;
+    }
+
+    static String randomWord(Random random) {
+        return VOCABULARY[random.nextInt(VOCABULARY.length)];
+    }
+}
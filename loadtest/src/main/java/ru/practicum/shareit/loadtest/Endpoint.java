@@ -0,0 +1,45 @@
+package ru.practicum.shareit.loadtest;
+
+/**
+ * Эндпоинты шлюза, участвующие в нагрузке, и их доля в общем потоке запросов.
+ */
+public enum Endpoint {
+    CREATE_BOOKING("POST /bookings", 10),
+    CURRENT_BOOKINGS("GET /bookings?state=CURRENT", 20),
+    OWNER_BOOKINGS("GET /bookings/owner", 15),
+    OWNER_ITEMS("GET /items", 20),
+    SEARCH_ITEMS("GET /items/search", 25),
+    OTHER_REQUESTS("GET /requests/all", 10);
+
+    private static final int TOTAL_WEIGHT = totalWeight();
+
+    final String title;
+    final int weight;
+
+    Endpoint(String title, int weight) {
+        this.title = title;
+        this.weight = weight;
+    }
+
+    /**
+     * Выбирает эндпоинт пропорционально весу по числу из диапазона [0, 1).
+     */
+    static Endpoint pick(double random) {
+        int point = (int) (random * TOTAL_WEIGHT);
+        for (Endpoint endpoint : values()) {
+            point -= endpoint.weight;
+            if (point < 0) {
+                return endpoint;
+            }
+        }
+        return values()[values().length - 1];
+    }
+
+    private static int totalWeight() {
+        int total = 0;
+        for (Endpoint endpoint : values()) {
+            total += endpoint.weight;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограммы задержек и счётчики ошибок по эндпоинтам.
+ */
+public class LatencyStats {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+
+    public LatencyStats() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new Recorder(MAX_LATENCY_NANOS, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    public void record(Endpoint endpoint, long latencyNanos, boolean success) {
+        recorders.get(endpoint).recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+        if (!success) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    /**
+     * Сбрасывает накопленные значения, например после прогрева.
+     */
+    public void reset() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.get(endpoint).reset();
+            errors.get(endpoint).reset();
+        }
+    }
+
+    public String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "%-30s %9s %7s %10s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50, ms", "p99, ms", "Max, ms"));
+        Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+        long totalErrors = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = recorders.get(endpoint).getIntervalHistogram();
+            long endpointErrors = errors.get(endpoint).sum();
+            total.add(histogram);
+            totalErrors += endpointErrors;
+            report.append(line(endpoint.title, histogram, endpointErrors, seconds));
+        }
+        report.append(line("Total", total, totalErrors, seconds));
+        return report.toString();
+    }
+
+    private static String line(String title, Histogram histogram, long errors, double seconds) {
+        return String.format(Locale.ROOT, "%-30s %9d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                title, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.loadtest;
+
+import java.nio.file.Files;
+
+/**
+ * Нагрузочный прогон через шлюз: подготовка данных, прогрев, измерение и отчёт
+ * с p50/p99 и пропускной способностью по каждому эндпоинту.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ShareItClient client = new ShareItClient(options.gatewayUrl);
+        try (ServiceLauncher launcher = new ServiceLauncher(client)) {
+            if (options.launchServices()) {
+                launcher.start(options);
+            }
+            System.out.printf("Seeding %d users, %d items, %d bookings%n",
+                    options.users, options.items, options.bookings);
+            Dataset dataset = new Seeder(client, options).seed();
+            System.out.printf("Running %d threads: %ds warmup, %ds measurement%n",
+                    options.threads, options.warmup.toSeconds(), options.duration.toSeconds());
+            String report = new Workload(client, dataset, options).run();
+            System.out.print(report);
+            if (options.report != null) {
+                Files.writeString(options.report, report);
+            }
+        }
+    }
+}
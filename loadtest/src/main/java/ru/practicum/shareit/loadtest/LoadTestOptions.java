@@ -0,0 +1,62 @@
+package ru.practicum.shareit.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона, передаются в виде {@code --name=value}.
+ */
+public class LoadTestOptions {
+    final String gatewayUrl;
+    final Path serverJar;
+    final Path gatewayJar;
+    final int users;
+    final int items;
+    final int bookings;
+    final int threads;
+    final Duration warmup;
+    final Duration duration;
+    final long seed;
+    final Path report;
+    final boolean virtualThreads;
+
+    private LoadTestOptions(Map<String, String> values) {
+        gatewayUrl = values.getOrDefault("gateway-url", "http://localhost:8080");
+        serverJar = path(values.get("server-jar"));
+        gatewayJar = path(values.get("gateway-jar"));
+        users = Integer.parseInt(values.getOrDefault("users", "50"));
+        items = Integer.parseInt(values.getOrDefault("items", "500"));
+        bookings = Integer.parseInt(values.getOrDefault("bookings", "1000"));
+        threads = Integer.parseInt(values.getOrDefault("threads", "16"));
+        warmup = Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10")));
+        duration = Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60")));
+        seed = Long.parseLong(values.getOrDefault("seed", "42"));
+        report = path(values.get("report"));
+        virtualThreads = Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false"));
+        if (users < 2 || items < 1 || threads < 1) {
+            throw new IllegalArgumentException("Need at least 2 users, 1 item and 1 thread");
+        }
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    boolean launchServices() {
+        return serverJar != null && gatewayJar != null;
+    }
+
+    private static Path path(String value) {
+        return value == null ? null : Path.of(value);
+    }
+}
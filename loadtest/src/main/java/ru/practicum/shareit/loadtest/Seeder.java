@@ -0,0 +1,84 @@
+package ru.practicum.shareit.loadtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Заполняет приложение через шлюз: пользователи, запросы, вещи и бронирования.
+ * Первое бронирование каждой вещи начинается через несколько секунд после создания
+ * и становится текущим к началу нагрузки, остальные не пересекаются и лежат в будущем.
+ */
+public class Seeder {
+    static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final long CURRENT_START_DELAY_SECONDS = 3;
+
+    private final ShareItClient client;
+    private final LoadTestOptions options;
+    private final Random random;
+
+    public Seeder(ShareItClient client, LoadTestOptions options) {
+        this.client = client;
+        this.options = options;
+        this.random = new Random(options.seed);
+    }
+
+    public Dataset seed() throws InterruptedException {
+        Dataset dataset = new Dataset();
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < options.users; i++) {
+            dataset.userIds.add(client.create("/users", null,
+                    Map.of("name", "User " + i, "email", "user" + i + "." + run + "@loadtest.com")));
+        }
+
+        List<Long> requestIds = new ArrayList<>();
+        for (Long userId : dataset.userIds) {
+            requestIds.add(client.create("/requests", userId,
+                    Map.of("description", "Need a " + Dataset.randomWord(random))));
+        }
+
+        for (int i = 0; i < options.items; i++) {
+            long ownerId = dataset.userIds.get(i % dataset.userIds.size());
+            String word = Dataset.randomWord(random);
+            Map<String, Object> item = new HashMap<>(Map.of(
+                    "name", word + " " + i, "description", "Good " + word + " with case", "available", true));
+            if (i % 5 == 0) {
+                item.put("requestId", requestIds.get(random.nextInt(requestIds.size())));
+            }
+            dataset.itemIds.add(client.create("/items", ownerId, item));
+            dataset.itemOwnerIds.add(ownerId);
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime currentStart = now;
+        for (int i = 0; i < options.bookings; i++) {
+            int item = i % dataset.itemIds.size();
+            int slot = i / dataset.itemIds.size();
+            if (slot == 0) {
+                currentStart = LocalDateTime.now().plusSeconds(CURRENT_START_DELAY_SECONDS)
+                        .truncatedTo(ChronoUnit.SECONDS);
+            }
+            LocalDateTime start = (slot == 0) ? currentStart : now.plusDays(2L * slot);
+            LocalDateTime end = (slot == 0) ? now.plusDays(1) : start.plusDays(1);
+            long bookingId = client.create("/bookings", dataset.randomBooker(random, item),
+                    Map.of("itemId", dataset.itemIds.get(item),
+                            "start", start.format(DATE_TIME),
+                            "end", end.format(DATE_TIME)));
+            if (i % 2 == 0) {
+                client.patch("/bookings/" + bookingId + "?approved=true", dataset.itemOwnerIds.get(item));
+            }
+        }
+
+        long untilCurrent = Duration.between(LocalDateTime.now(), currentStart).toMillis();
+        if (untilCurrent > 0) {
+            Thread.sleep(untilCurrent + 1000);
+        }
+        return dataset;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запускает собранные jar сервера и шлюза отдельными процессами на H2 (профиль ci)
+ * и ждёт, пока оба ответят на health-check. Процессы запускаются той же JDK, что и сам прогон,
+ * с {@code --virtual-threads=true} — в режиме виртуальных потоков.
+ */
+public class ServiceLauncher implements AutoCloseable {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final List<Process> processes = new ArrayList<>();
+    private final ShareItClient client;
+
+    public ServiceLauncher(ShareItClient client) {
+        this.client = client;
+    }
+
+    public void start(LoadTestOptions options) throws IOException, InterruptedException {
+        Path logs = Files.createDirectories(Path.of("target", "loadtest-logs"));
+        String threads = "--shareit.threads.virtual.enabled=" + options.virtualThreads;
+        processes.add(launch(options.serverJar, logs.resolve("server.log"), "--spring.profiles.active=ci", threads));
+        waitUntilUp("http://localhost:9090/actuator/health");
+        processes.add(launch(options.gatewayJar, logs.resolve("gateway.log"), threads,
+                "--logging.level.org.springframework.web.reactive.function.client.ExchangeFunctions=INFO"));
+        waitUntilUp(options.gatewayUrl + "/actuator/health");
+    }
+
+    @Override
+    public void close() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+
+    private Process launch(Path jar, Path log, String... args) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", jar.toString()));
+        command.addAll(List.of(args));
+        System.out.println("Starting " + jar + ", log: " + log);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private void waitUntilUp(String healthUrl) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (!client.isUp(healthUrl)) {
+            for (Process process : processes) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Process exited with code " + process.exitValue());
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timed out waiting for " + healthUrl);
+            }
+            Thread.sleep(500);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Минимальный HTTP-клиент шлюза: JSON-тела, заголовок пользователя и код ответа.
+ */
+public class ShareItClient {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+
+    public ShareItClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public int get(String path, Long userId) {
+        return send(request(path, userId).GET().build()).statusCode();
+    }
+
+    public int post(String path, Long userId, Map<String, Object> body) {
+        return send(request(path, userId).POST(json(body)).build()).statusCode();
+    }
+
+    public int patch(String path, Long userId) {
+        return send(request(path, userId).method("PATCH", HttpRequest.BodyPublishers.noBody()).build())
+                .statusCode();
+    }
+
+    /**
+     * Создаёт ресурс и возвращает его идентификатор, ответ с ошибкой считается сбоем подготовки данных.
+     */
+    public long create(String path, Long userId, Map<String, Object> body) {
+        HttpResponse<String> response = send(request(path, userId).POST(json(body)).build());
+        if (response.statusCode() != 200 && response.statusCode() != 201) {
+            throw new IllegalStateException(String.format("POST %s returned %d: %s",
+                    path, response.statusCode(), response.body()));
+        }
+        try {
+            JsonNode node = mapper.readTree(response.body());
+            return node.get("id").asLong();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isUp(String url) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(2)).build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private HttpRequest.Builder request(String path, Long userId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json");
+        if (userId != null) {
+            builder.header(USER_HEADER, userId.toString());
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Map<String, Object> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Замкнутый цикл нагрузки: каждый поток без пауз отправляет запросы, выбирая эндпоинт по весам.
+ */
+public class Workload {
+    private static final int PAGE_SIZE = 20;
+    private static final long BOOKING_HORIZON_HOURS = 24 * 365 * 10;
+
+    private final ShareItClient client;
+    private final Dataset dataset;
+    private final LoadTestOptions options;
+    private final LatencyStats stats = new LatencyStats();
+
+    public Workload(ShareItClient client, Dataset dataset, LoadTestOptions options) {
+        this.client = client;
+        this.dataset = dataset;
+        this.options = options;
+    }
+
+    /**
+     * Прогревает приложение, затем измеряет заданное время и возвращает отчёт.
+     */
+    public String run() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads);
+        long warmupEnd = System.nanoTime() + options.warmup.toNanos();
+        long measurementEnd = warmupEnd + options.duration.toNanos();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < options.threads; i++) {
+            Random random = new Random(options.seed + i);
+            workers.add(executor.submit(() -> drive(random, measurementEnd)));
+        }
+        Thread.sleep(options.warmup.toMillis());
+        stats.reset();
+        long measurementStart = System.nanoTime();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - measurementStart;
+        executor.shutdown();
+        return stats.report(elapsed);
+    }
+
+    private void drive(Random random, long deadline) {
+        while (System.nanoTime() < deadline) {
+            Endpoint endpoint = Endpoint.pick(random.nextDouble());
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                int status = call(endpoint, random);
+                success = status >= 200 && status < 400;
+            } catch (UncheckedIOException e) {
+                success = false;
+            }
+            stats.record(endpoint, System.nanoTime() - start, success);
+        }
+    }
+
+    private int call(Endpoint endpoint, Random random) {
+        int page = random.nextInt(3) * PAGE_SIZE;
+        switch (endpoint) {
+            case CREATE_BOOKING:
+                int item = dataset.randomItem(random);
+                LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+                        .plusYears(1).plusHours(random.nextInt((int) BOOKING_HORIZON_HOURS));
+                return client.post("/bookings", dataset.randomBooker(random, item),
+                        Map.of("itemId", dataset.itemIds.get(item),
+                                "start", start.format(Seeder.DATE_TIME),
+                                "end", start.plusHours(1 + random.nextInt(72)).format(Seeder.DATE_TIME)));
+            case CURRENT_BOOKINGS:
+                return client.get("/bookings?state=CURRENT&from=0&size=" + PAGE_SIZE, dataset.randomUser(random));
+            case OWNER_BOOKINGS:
+                return client.get("/bookings/owner?from=" + page + "&size=" + PAGE_SIZE,
+                        dataset.randomUser(random));
+            case OWNER_ITEMS:
+                return client.get("/items?from=" + page + "&size=" + PAGE_SIZE, dataset.randomUser(random));
+            case SEARCH_ITEMS:
+                return client.get("/items/search?text=" + ShareItClient.encode(Dataset.randomWord(random))
+                        + "&from=" + page + "&size=" + PAGE_SIZE, dataset.randomUser(random));
+            case OTHER_REQUESTS:
+                return client.get("/requests/all?from=" + page + "&size=" + PAGE_SIZE, dataset.randomUser(random));
+            default:
+                throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Отдельный спан на каждый вызов репозитория Spring Data, чтобы отделить время работы с базой
+ * от логики сервиса. Имя спана — интерфейс репозитория и метод, например {@code ItemRepository.findById}.
+ */
+@Aspect
+@Component
+public class RepositoryTracingAspect {
+    private final Tracer tracer;
+
+    @Autowired
+    public RepositoryTracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("execution(* ru.practicum.shareit..*Repository+.*(..))")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        Span span = tracer.nextSpan()
+                .name(repositoryName(joinPoint.getTarget()) + "." + joinPoint.getSignature().getName())
+                .tag("component", "repository")
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static String repositoryName(Object repository) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(repository)) {
+            if (type.getPackageName().startsWith("ru.practicum.shareit")) {
+                return type.getSimpleName();
+            }
+        }
+        return repository.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Сильный ETag представления ресурса: MD5 от JSON, который получит клиент, поэтому тег меняется ровно тогда,
+ * когда меняется тело ответа, включая вложенные бронирования и комментарии. DTO сериализуется один раз,
+ * и эти же байты уходят телом ответа.
+ * <p>
+ * Тег экономит только трафик: чтобы его вычислить, сервис загружает ресурс из базы, а DTO сериализуется
+ * и при ответе 304. Пропуск загрузки и сериализации при совпавшем теге сюда не входит: версия есть только
+ * у бронирования, а ответ по вещи зависит ещё от текущего времени и от того, кто спрашивает (последнее
+ * и следующее бронирование), так что тег из дешёвых признаков версии мог бы не измениться вместе с телом.
+ */
+@Component
+public class ResourceETag {
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ResourceETag(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String of(Object dto) {
+        return of(serialize(dto));
+    }
+
+    /**
+     * Выставляет ETag в ответ; если тег совпал с If-None-Match, ответ помечается как 304
+     * и возвращается null без тела, иначе — сериализованный DTO.
+     */
+    public ResponseEntity<byte[]> checkNotModified(WebRequest request, Object dto) {
+        byte[] body = serialize(dto);
+        if (request.checkNotModified(of(body))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private byte[] serialize(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Не удалось сериализовать " + dto.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static String of(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+}
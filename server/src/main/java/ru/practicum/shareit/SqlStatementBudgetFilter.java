@@ -0,0 +1,64 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Записывает число SQL-запросов на один HTTP-запрос и предупреждает в логе,
+ * если оно превышает бюджет {@code shareit.sql.statement-budget} — типичный признак N+1.
+ */
+@Slf4j
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+    static final String STATEMENTS_METRIC = "shareit.http.sql.statements";
+    static final String BUDGET_EXCEEDED_METRIC = "shareit.http.sql.budget.exceeded";
+
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+
+    public SqlStatementBudgetFilter(MeterRegistry meterRegistry, int statementBudget) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementInspector.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementInspector.count();
+            String uri = uri(request);
+            DistributionSummary.builder(STATEMENTS_METRIC)
+                    .description("SQL statements executed per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(statements);
+            if (statements > statementBudget) {
+                Counter.builder(BUDGET_EXCEEDED_METRIC)
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .increment();
+                log.warn("Запрос {} {} выполнил {} SQL-запросов при бюджете {}",
+                        request.getMethod(), request.getRequestURI(), statements, statementBudget);
+            }
+        }
+    }
+
+    static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return (pattern != null) ? pattern.toString() : "UNKNOWN";
+    }
+}
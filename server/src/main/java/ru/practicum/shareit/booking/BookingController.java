@@ -2,8 +2,12 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.ResourceETag;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 
@@ -14,10 +18,12 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final ResourceETag resourceETag;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ResourceETag resourceETag) {
         this.bookingService = bookingService;
+        this.resourceETag = resourceETag;
     }
 
     @PostMapping
@@ -32,31 +38,38 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public BookingInfoDto getBooking(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long bookingId) {
-        return bookingService.getBooking(userId, bookingId);
+    public ResponseEntity<byte[]> getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                             @PathVariable Long bookingId, WebRequest request) {
+        return resourceETag.checkNotModified(request, bookingService.getBooking(userId, bookingId));
     }
 
     @GetMapping
-    public List<BookingInfoDto> getBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                            @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
-                                            @RequestParam(name = "from", defaultValue = "0")
-                                            Integer from,
-                                            @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingInfoDto>> getBookings(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "after", required = false) String after) {
 
         BookingState state = BookingState.valueOf(stateParam);
-        return bookingService.getBookings(userId, state, new MyPageRequest(from, size, Sort.unsorted()));
+        List<BookingInfoDto> bookings = (after != null)
+                ? bookingService.getBookings(userId, state, PageCursor.decode(after), size)
+                : bookingService.getBookings(userId, state, new MyPageRequest(from, size, Sort.unsorted()));
+        return PageCursor.toResponse(bookings, size, booking -> PageCursor.of(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingInfoDto> getBookingsForOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                    @RequestParam(name = "state", defaultValue = "ALL")
-                                                    String stateParam,
-                                                    @RequestParam(name = "from", defaultValue = "0")
-                                                    Integer from,
-                                                    @RequestParam(name = "size", defaultValue = "10")
-                                                    Integer size) {
+    public ResponseEntity<List<BookingInfoDto>> getBookingsForOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "after", required = false) String after) {
 
         BookingState state = BookingState.valueOf(stateParam);
-        return bookingService.getBookingsForOwner(userId, state, new MyPageRequest(from, size, Sort.unsorted()));
+        List<BookingInfoDto> bookings = (after != null)
+                ? bookingService.getBookingsForOwner(userId, state, PageCursor.decode(after), size)
+                : bookingService.getBookingsForOwner(userId, state, new MyPageRequest(from, size, Sort.unsorted()));
+        return PageCursor.toResponse(bookings, size, booking -> PageCursor.of(booking.getStart(), booking.getId()));
     }
 }
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Обслуживание секций таблицы бронирований в PostgreSQL (миграции V6, V10): создаёт месячные секции
+ * наперёд и переносит старые в архивную секцию, присоединяя их к ней целиком. Управляется свойством
+ * {@code shareit.booking.partitions.maintenance.enabled}: по умолчанию включено, в профилях {@code ci}
+ * и {@code test} на H2 выключено. Без обслуживания, когда созданные наперёд секции закончатся,
+ * новые бронирования будут попадать в секцию по умолчанию.
+ * <p>
+ * Обслуживание выполняется на одном соединении под сессионной рекомендательной блокировкой: если её держит
+ * другой экземпляр сервера, запуск пропускается, и DDL секций не выполняется на нескольких экземплярах сразу.
+ * Каждая команда идёт отдельной транзакцией, чтобы проверка ограничения-границы секции по умолчанию
+ * не держала блокировок, мешающих работе с бронированиями.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.partitions.maintenance.enabled", havingValue = "true")
+@Slf4j
+public class BookingPartitionMaintenance {
+    static final int LOCK_CLASS_ID = 0x53484954;
+    static final int LOCK_OBJECT_ID = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    @Autowired
+    public BookingPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                       @Value("${shareit.booking.partitions.months-ahead}") int monthsAhead,
+                                       @Value("${shareit.booking.partitions.retention-months}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.booking.partitions.cron}")
+    public void maintain() {
+        maintain(null);
+    }
+
+    /**
+     * Обслуживает секции на момент {@code asOf} (по умолчанию — текущее время базы).
+     *
+     * @return {@code false}, если обслуживание уже выполняет другой экземпляр
+     */
+    boolean maintain(@Nullable LocalDateTime asOf) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(session.queryForObject("select pg_try_advisory_lock(?, ?)",
+                    Boolean.class, LOCK_CLASS_ID, LOCK_OBJECT_ID))) {
+                log.info("Обслуживание секций бронирований выполняет другой экземпляр, запуск пропущен");
+                return false;
+            }
+            try {
+                maintain(session, asOf);
+            } finally {
+                session.queryForObject("select pg_advisory_unlock(?, ?)", Boolean.class,
+                        LOCK_CLASS_ID, LOCK_OBJECT_ID);
+            }
+            return true;
+        }));
+    }
+
+    private void maintain(JdbcTemplate session, @Nullable LocalDateTime asOf) {
+        Integer created = session.queryForObject(
+                "select bookings_create_partitions(?, coalesce(cast(? as timestamp), localtimestamp))",
+                Integer.class, monthsAhead, asOf);
+        String boundCheck = session.queryForObject(
+                "select bookings_archive_prepare_bound(?, coalesce(cast(? as timestamp), localtimestamp))",
+                String.class, retentionMonths, asOf);
+        if (boundCheck != null) {
+            session.execute("alter table bookings_default validate constraint \"" + boundCheck + "\"");
+        }
+        Integer archived = session.queryForObject(
+                "select bookings_archive_partitions(?, coalesce(cast(? as timestamp), localtimestamp))",
+                Integer.class, retentionMonths, asOf);
+        log.info("Обслуживание секций бронирований: создано {}, перенесено в архив {}", created, archived);
+    }
+}
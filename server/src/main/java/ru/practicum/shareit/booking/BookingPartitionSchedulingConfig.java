@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Планировщик нужен только для обслуживания секций бронирований, поэтому включается тем же свойством,
+ * что и {@link BookingPartitionMaintenance}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "shareit.booking.partitions.maintenance.enabled", havingValue = "true")
+public class BookingPartitionSchedulingConfig {
+}
@@ -1,44 +1,183 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Page<Booking> findByBookerOrderByStartDesc(User booker, Pageable pageable);
+    String BOOKING_INFO_QUERY = "select new ru.practicum.shareit.booking.dto.BookingInfoDto(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, u.id, u.name, u.email) " +
+            "from Booking b join b.item i join b.booker u ";
 
-    Page<Booking> findByBookerAndStatusOrderByStartDesc(User booker, BookingStatus status, Pageable pageable);
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByBookerIdOrderByStartDescIdDesc(Long bookerId, Pageable pageable);
 
-    Page<Booking> findByBookerAndStartBeforeAndEndAfterOrderByStartDesc(User booker,
-                                                                        LocalDateTime start,
-                                                                        LocalDateTime end,
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 and b.status = ?2 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByBookerIdAndStatusOrderByStartDescIdDesc(Long bookerId, BookingStatus status,
                                                                         Pageable pageable);
 
-    Page<Booking> findByBookerAndEndBeforeOrderByStartDesc(User booker, LocalDateTime end, Pageable pageable);
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 and b.start < ?2 and b.end > ?3 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(Long bookerId,
+                                                                                        LocalDateTime start,
+                                                                                        LocalDateTime end,
+                                                                                        Pageable pageable);
 
-    Page<Booking> findByBookerAndStartAfterOrderByStartDesc(User booker, LocalDateTime start, Pageable pageable);
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 and b.end < ?2 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByBookerIdAndEndBeforeOrderByStartDescIdDesc(Long bookerId, LocalDateTime end,
+                                                                           Pageable pageable);
 
-    Page<Booking> findByItemInOrderByStartDesc(List<Item> items, Pageable pageable);
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 and b.start > ?2 and b.end > ?2 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByBookerIdAndStartAfterOrderByStartDescIdDesc(Long bookerId, LocalDateTime start,
+                                                                            Pageable pageable);
 
-    Page<Booking> findByItemInAndStatusOrderByStartDesc(List<Item> items, BookingStatus status, Pageable pageable);
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByItemOwnerIdOrderByStartDescIdDesc(Long ownerId, Pageable pageable);
 
-    Page<Booking> findByItemInAndStartBeforeAndEndAfterOrderByStartDesc(List<Item> items,
-                                                                        LocalDateTime start,
-                                                                        LocalDateTime end,
-                                                                        Pageable pageable);
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 and b.status = ?2 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByItemOwnerIdAndStatusOrderByStartDescIdDesc(Long ownerId, BookingStatus status,
+                                                                           Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 and b.start < ?2 and b.end > ?3 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(Long ownerId,
+                                                                                           LocalDateTime start,
+                                                                                           LocalDateTime end,
+                                                                                           Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 and b.end < ?2 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(Long ownerId, LocalDateTime end,
+                                                                              Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 and b.start > ?2 and b.end > ?2 " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingInfoDto> findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Long ownerId, LocalDateTime start,
+                                                                               Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or b.id < ?3) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findByBookerIdBefore(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                              Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 and b.status = ?2 " +
+            "and b.start <= ?3 and (b.start < ?3 or b.id < ?4) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findByBookerIdAndStatusBefore(Long bookerId, BookingStatus status,
+                                                       LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 and b.start < ?2 and b.end > ?2 " +
+            "and b.start <= ?3 and (b.start < ?3 or b.id < ?4) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findCurrentByBookerIdBefore(Long bookerId, LocalDateTime moment,
+                                                     LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 and b.end < ?2 " +
+            "and b.start <= ?3 and (b.start < ?3 or b.id < ?4) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findPastByBookerIdBefore(Long bookerId, LocalDateTime moment,
+                                                  LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where u.id = ?1 and b.start > ?2 and b.end > ?2 " +
+            "and b.start <= ?3 and (b.start < ?3 or b.id < ?4) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findFutureByBookerIdBefore(Long bookerId, LocalDateTime moment,
+                                                    LocalDateTime cursorStart, Long cursorId, Pageable pageable);
 
-    Page<Booking> findByItemInAndEndBeforeOrderByStartDesc(List<Item> items, LocalDateTime end, Pageable pageable);
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or b.id < ?3) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findByItemOwnerIdBefore(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                 Pageable pageable);
 
-    Page<Booking> findByItemInAndStartAfterOrderByStartDesc(List<Item> items, LocalDateTime start, Pageable pageable);
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 and b.status = ?2 " +
+            "and b.start <= ?3 and (b.start < ?3 or b.id < ?4) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findByItemOwnerIdAndStatusBefore(Long ownerId, BookingStatus status,
+                                                          LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 and b.start < ?2 and b.end > ?2 " +
+            "and b.start <= ?3 and (b.start < ?3 or b.id < ?4) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findCurrentByItemOwnerIdBefore(Long ownerId, LocalDateTime moment,
+                                                        LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 and b.end < ?2 " +
+            "and b.start <= ?3 and (b.start < ?3 or b.id < ?4) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findPastByItemOwnerIdBefore(Long ownerId, LocalDateTime moment,
+                                                     LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BOOKING_INFO_QUERY +
+            "where i.owner.id = ?1 and b.start > ?2 and b.end > ?2 " +
+            "and b.start <= ?3 and (b.start < ?3 or b.id < ?4) " +
+            "order by b.start desc, b.id desc")
+    List<BookingInfoDto> findFutureByItemOwnerIdBefore(Long ownerId, LocalDateTime moment,
+                                                       LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @Query("select b.item.id from Booking b where b.id = ?1")
+    Optional<Long> findItemIdById(Long id);
 
     Booking findFirstByItemAndStartBeforeOrderByStartDesc(Item item, LocalDateTime moment);
 
-    Booking findFirstByItemAndStartAfterOrderByStartAsc(Item item, LocalDateTime moment);
+    Booking findFirstByItemAndStartAfterAndEndAfterOrderByStartAsc(Item item, LocalDateTime start,
+                                                                   LocalDateTime end);
+
+    @Query(value = "select b.id, b.start_date, b.end_date, b.item_id, b.booker_id, b.status, b.version " +
+            "from (select bk.*, row_number() over (partition by bk.item_id order by bk.start_date desc) as rn " +
+            "      from bookings bk " +
+            "      where bk.item_id in ?1 and bk.start_date < ?2) b " +
+            "where b.rn = 1", nativeQuery = true)
+    List<Booking> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime moment);
+
+    @Query(value = "select b.id, b.start_date, b.end_date, b.item_id, b.booker_id, b.status, b.version " +
+            "from (select bk.*, row_number() over (partition by bk.item_id order by bk.start_date asc) as rn " +
+            "      from bookings bk " +
+            "      where bk.item_id in ?1 and bk.start_date > ?2 and bk.end_date > ?2) b " +
+            "where b.rn = 1", nativeQuery = true)
+    List<Booking> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime moment);
+
+    @Query("select count(b) > 0 from Booking b " +
+            "where b.item.id = ?1 and b.status = ?2 and b.start < ?4 and b.end > ?3")
+    boolean existsOverlapping(Long itemId, BookingStatus status, LocalDateTime start, LocalDateTime end);
 
-    boolean existsBookingByBookerAndEndBefore(User booker, LocalDateTime moment);
+    boolean existsBookingByBookerIdAndEndBefore(Long bookerId, LocalDateTime moment);
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 
@@ -17,4 +18,8 @@ public interface BookingService {
     List<BookingInfoDto> getBookings(Long userId, BookingState state, PageRequest pageRequest);
 
     List<BookingInfoDto> getBookingsForOwner(Long userId, BookingState state, PageRequest pageRequest);
+
+    List<BookingInfoDto> getBookings(Long userId, BookingState state, PageCursor after, int size);
+
+    List<BookingInfoDto> getBookingsForOwner(Long userId, BookingState state, PageCursor after, int size);
 }
@@ -2,10 +2,15 @@ package ru.practicum.shareit.booking;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.exception.*;
@@ -14,31 +19,51 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
-@Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final String EXCLUSION_VIOLATION = "23P01";
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemLockManager itemLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
 
     @Autowired
     public BookingServiceImpl(BookingRepository bookingRepository,
                               ItemRepository itemRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository,
+                              ItemLockManager itemLockManager,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${shareit.booking.max-attempts:3}") int maxAttempts) {
         this.bookingRepository = bookingRepository;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
+        this.itemLockManager = itemLockManager;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
     }
 
     @Override
-    @Transactional
     public BookingInfoDto createBooking(BookingDto bookingDto, Long userId) {
+        return inItemTransaction(bookingDto.getItemId(), () -> doCreateBooking(bookingDto, userId));
+    }
+
+    @Override
+    public BookingInfoDto approveBooking(Long userId, Long bookingId, Boolean isApproved) {
+        Long itemId = bookingRepository.findItemIdById(bookingId).orElseThrow(
+                () -> new NonExistentIdException("Не найдена запись о бронировании с id " + bookingId));
+        return inItemTransaction(itemId, () -> doApproveBooking(userId, bookingId, isApproved));
+    }
+
+    private BookingInfoDto doCreateBooking(BookingDto bookingDto, Long userId) {
         Item item = getItemById(bookingDto.getItemId());
         if (!item.getAvailable()) {
             throw new NonAvailableItemException(String.format("Вещь с id %d недоступна", item.getId()));
@@ -49,6 +74,8 @@ public class BookingServiceImpl implements BookingService {
                             userId, item.getId()));
         }
         User booker = getUserById(userId);
+        lockItem(item.getId());
+        checkNoApprovedOverlap(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
         Booking booking = BookingMapper.toBooking(bookingDto, item, booker);
         booking.setStatus(BookingStatus.WAITING);
         Booking savedBooking = bookingRepository.save(booking);
@@ -56,9 +83,7 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingInfoDto(savedBooking);
     }
 
-    @Override
-    @Transactional
-    public BookingInfoDto approveBooking(Long userId, Long bookingId, Boolean isApproved) {
+    private BookingInfoDto doApproveBooking(Long userId, Long bookingId, Boolean isApproved) {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(
                 () -> new NonExistentIdException("Не найдена запись о бронировании с id " + bookingId));
         if (booking.getStatus().equals(BookingStatus.APPROVED)) {
@@ -70,6 +95,10 @@ public class BookingServiceImpl implements BookingService {
                     "Пользователь id %d не является владельцем вещи и не может изменить её статус бронирования",
                     userId));
         }
+        if (isApproved) {
+            lockItem(booking.getItem().getId());
+            checkNoApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        }
         booking.setStatus(isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
         Booking savedBooking = bookingRepository.save(booking);
         log.info("Статус бронирования id {} изменён на {}", savedBooking.getId(), savedBooking.getStatus());
@@ -77,6 +106,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingInfoDto getBooking(Long userId, Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(
                 () -> new NonExistentIdException("Не найдена запись о бронировании с id " + bookingId));
@@ -90,71 +120,194 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingInfoDto> getBookings(Long userId, BookingState state, PageRequest pageRequest) {
-        final User booker = getUserById(userId);
-        final Page<Booking> bookings;
+        userRepository.checkExists(userId);
+        final Slice<BookingInfoDto> bookings;
 
         switch (state) {
             case WAITING:
-                bookings = bookingRepository.findByBookerAndStatusOrderByStartDesc(booker, BookingStatus.WAITING,
-                        pageRequest);
+                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(userId,
+                        BookingStatus.WAITING, pageRequest);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findByBookerAndStatusOrderByStartDesc(booker, BookingStatus.REJECTED,
-                        pageRequest);
+                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(userId,
+                        BookingStatus.REJECTED, pageRequest);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByBookerAndStartBeforeAndEndAfterOrderByStartDesc(
-                        booker, LocalDateTime.now(), LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                        userId, LocalDateTime.now(), LocalDateTime.now(), pageRequest);
                 break;
             case PAST:
-                bookings = bookingRepository.findByBookerAndEndBeforeOrderByStartDesc(
-                        booker, LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findByBookerIdAndEndBeforeOrderByStartDescIdDesc(
+                        userId, LocalDateTime.now(), pageRequest);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByBookerAndStartAfterOrderByStartDesc(
-                        booker, LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findByBookerIdAndStartAfterOrderByStartDescIdDesc(
+                        userId, LocalDateTime.now(), pageRequest);
                 break;
             default:
-                bookings = bookingRepository.findByBookerOrderByStartDesc(booker, pageRequest);
+                bookings = bookingRepository.findByBookerIdOrderByStartDescIdDesc(userId, pageRequest);
                 break;
         }
 
-        return bookings.stream().map(BookingMapper::toBookingInfoDto).collect(Collectors.toList());
+        return bookings.getContent();
     }
 
+    @Transactional(readOnly = true)
     public List<BookingInfoDto> getBookingsForOwner(Long userId, BookingState state, PageRequest pageRequest) {
-        final User owner = getUserById(userId);
-        final List<Item> items = itemRepository.findByOwnerOrderByIdAsc(owner);
-        final Page<Booking> bookings;
+        userRepository.checkExists(userId);
+        final Slice<BookingInfoDto> bookings;
+
+        switch (state) {
+            case WAITING:
+                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(userId,
+                        BookingStatus.WAITING, pageRequest);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(userId,
+                        BookingStatus.REJECTED, pageRequest);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                        userId, LocalDateTime.now(), LocalDateTime.now(), pageRequest);
+                break;
+            case PAST:
+                bookings = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(
+                        userId, LocalDateTime.now(), pageRequest);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
+                        userId, LocalDateTime.now(), pageRequest);
+                break;
+            default:
+                bookings = bookingRepository.findByItemOwnerIdOrderByStartDescIdDesc(userId, pageRequest);
+                break;
+        }
+
+        return bookings.getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingInfoDto> getBookings(Long userId, BookingState state, PageCursor after, int size) {
+        userRepository.checkExists(userId);
+        final LocalDateTime cursorStart = after.requirePosition().getPosition();
+        final Long cursorId = after.getId();
+        final PageRequest pageRequest = PageRequest.of(0, size);
+        final List<BookingInfoDto> bookings;
 
         switch (state) {
             case WAITING:
-                bookings = bookingRepository.findByItemInAndStatusOrderByStartDesc(items, BookingStatus.WAITING,
-                        pageRequest);
+                bookings = bookingRepository.findByBookerIdAndStatusBefore(userId, BookingStatus.WAITING,
+                        cursorStart, cursorId, pageRequest);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findByItemInAndStatusOrderByStartDesc(items, BookingStatus.REJECTED,
-                        pageRequest);
+                bookings = bookingRepository.findByBookerIdAndStatusBefore(userId, BookingStatus.REJECTED,
+                        cursorStart, cursorId, pageRequest);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByItemInAndStartBeforeAndEndAfterOrderByStartDesc(
-                        items, LocalDateTime.now(), LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findCurrentByBookerIdBefore(userId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageRequest);
                 break;
             case PAST:
-                bookings = bookingRepository.findByItemInAndEndBeforeOrderByStartDesc(
-                        items, LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findPastByBookerIdBefore(userId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageRequest);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByItemInAndStartAfterOrderByStartDesc(
-                        items, LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findFutureByBookerIdBefore(userId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageRequest);
                 break;
             default:
-                bookings = bookingRepository.findByItemInOrderByStartDesc(items, pageRequest);
+                bookings = bookingRepository.findByBookerIdBefore(userId, cursorStart, cursorId, pageRequest);
                 break;
         }
 
-        return bookings.stream().map(BookingMapper::toBookingInfoDto).collect(Collectors.toList());
+        return bookings;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingInfoDto> getBookingsForOwner(Long userId, BookingState state, PageCursor after, int size) {
+        userRepository.checkExists(userId);
+        final LocalDateTime cursorStart = after.requirePosition().getPosition();
+        final Long cursorId = after.getId();
+        final PageRequest pageRequest = PageRequest.of(0, size);
+        final List<BookingInfoDto> bookings;
+
+        switch (state) {
+            case WAITING:
+                bookings = bookingRepository.findByItemOwnerIdAndStatusBefore(userId, BookingStatus.WAITING,
+                        cursorStart, cursorId, pageRequest);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findByItemOwnerIdAndStatusBefore(userId, BookingStatus.REJECTED,
+                        cursorStart, cursorId, pageRequest);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findCurrentByItemOwnerIdBefore(userId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageRequest);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastByItemOwnerIdBefore(userId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageRequest);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFutureByItemOwnerIdBefore(userId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageRequest);
+                break;
+            default:
+                bookings = bookingRepository.findByItemOwnerIdBefore(userId, cursorStart, cursorId, pageRequest);
+                break;
+        }
+
+        return bookings;
+    }
+
+    /**
+     * Выполняет изменение бронирования в отдельной транзакции под блокировкой вещи и повторяет его,
+     * если транзакция проиграла конкурентному изменению той же записи (например, на другом экземпляре сервиса).
+     * Пересечение подтверждённых бронирований, обнаруженное ограничением базы данных, сообщается
+     * как {@link BookingOverlapException}.
+     */
+    private <T> T inItemTransaction(Long itemId, Supplier<T> action) {
+        return itemLockManager.withLock(itemId, () -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> action.get());
+                } catch (DataIntegrityViolationException e) {
+                    if (!isApprovedPeriodOverlap(e)) {
+                        throw e;
+                    }
+                    log.warn("Подтверждённое бронирование вещи id {} отклонено ограничением базы данных: {}",
+                            itemId, e.getMostSpecificCause().getMessage());
+                    throw new BookingOverlapException(String.format(
+                            "Период бронирования вещи id %d пересекается с подтверждённым бронированием", itemId));
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= maxAttempts) {
+                        log.warn("Бронирование вещи id {} не сохранено после {} попыток", itemId, attempt);
+                        throw new ConcurrentBookingUpdateException(String.format(
+                                "Бронирование вещи id %d одновременно изменено другим запросом", itemId));
+                    }
+                    log.info("Конфликт версий бронирования вещи id {}, попытка {} из {}",
+                            itemId, attempt + 1, maxAttempts);
+                }
+            }
+        });
+    }
+
+    /**
+     * Нарушение ограничения-исключения (PostgreSQL, SQLState 23P01). Такие ограничения на bookings запрещают
+     * только пересечение подтверждённых бронирований: ex_bookings_item_approved_period, его копии в секциях
+     * и триггер V7. Остальные нарушения целостности пробрасываются как есть.
+     */
+    private static boolean isApprovedPeriodOverlap(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                return EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState());
+            }
+        }
+        return false;
     }
 
     private User getUserById(Long userId) {
@@ -166,4 +319,20 @@ public class BookingServiceImpl implements BookingService {
         return itemRepository.findById(itemId).orElseThrow(
                 () -> new NonExistentIdException("Не найдена вещь с id " + itemId));
     }
+
+    /**
+     * Блокирует строку вещи до конца транзакции, чтобы проверки пересечений на разных экземплярах сервиса
+     * шли по очереди; в PostgreSQL это дополнительно гарантирует ограничение ex_bookings_item_approved_period.
+     */
+    private void lockItem(Long itemId) {
+        itemRepository.findLockedById(itemId);
+    }
+
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsOverlapping(itemId, BookingStatus.APPROVED, start, end)) {
+            throw new BookingOverlapException(String.format(
+                    "Период бронирования вещи id %d с %s по %s пересекается с подтверждённым бронированием",
+                    itemId, start, end));
+        }
+    }
 }
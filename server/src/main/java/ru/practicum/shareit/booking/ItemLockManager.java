@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ConcurrentBookingUpdateException;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатые блокировки по id вещи: операции над одной вещью выполняются по очереди, а вещи,
+ * попавшие в разные полосы, друг друга не ждут. Ожидание блокировки не держит соединение с БД.
+ */
+@Component
+@Slf4j
+public class ItemLockManager {
+    private final ReentrantLock[] stripes;
+    private final long acquireTimeoutMillis;
+    private final Timer waitTimer;
+
+    @Autowired
+    public ItemLockManager(MeterRegistry meterRegistry,
+                           @Value("${shareit.booking.lock.stripes:64}") int stripes,
+                           @Value("${shareit.booking.lock.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+        this.waitTimer = Timer.builder("shareit.booking.item.lock.wait")
+                .description("Time spent waiting for a per-item booking lock")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public <T> T withLock(Long itemId, Supplier<T> action) {
+        final ReentrantLock lock = stripes[Math.floorMod(Objects.hashCode(itemId), stripes.length)];
+        final long startedAt = System.nanoTime();
+        final boolean acquired;
+        try {
+            acquired = lock.tryLock(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentBookingUpdateException("Ожидание блокировки вещи id " + itemId + " прервано");
+        } finally {
+            waitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            log.warn("Не удалось дождаться блокировки вещи id {} за {} мс", itemId, acquireTimeoutMillis);
+            throw new ConcurrentBookingUpdateException("Вещь id " + itemId + " занята другой операцией бронирования");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
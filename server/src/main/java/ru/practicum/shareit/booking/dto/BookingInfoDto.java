@@ -19,6 +19,13 @@ public class BookingInfoDto {
     Item item;
     User booker;
 
+    public BookingInfoDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                          Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                          Long bookerId, String bookerName, String bookerEmail) {
+        this(id, start, end, status, new Item(itemId, itemName, itemDescription, itemAvailable),
+                new User(bookerId, bookerName, bookerEmail));
+    }
+
     @Getter
     @Setter
     @NoArgsConstructor
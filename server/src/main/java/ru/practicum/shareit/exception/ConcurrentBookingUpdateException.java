@@ -0,0 +1,8 @@
+package ru.practicum.shareit.exception;
+
+public class ConcurrentBookingUpdateException extends RuntimeException {
+
+    public ConcurrentBookingUpdateException(String message) {
+        super(message);
+    }
+}
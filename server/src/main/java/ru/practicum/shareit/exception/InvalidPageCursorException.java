@@ -0,0 +1,8 @@
+package ru.practicum.shareit.exception;
+
+public class InvalidPageCursorException extends RuntimeException {
+
+    public InvalidPageCursorException(String message) {
+        super(message);
+    }
+}
@@ -56,6 +56,34 @@ public class ServerErrorHandler {
         );
     }
 
+    @ExceptionHandler
+    public ResponseEntity<?> handleValidationException(final InvalidPageCursorException exception) {
+        log.warn("Ошибка — некорректный курсор постраничной выдачи: {}", exception.getMessage());
+        return new ResponseEntity<>(
+                Map.of("Ошибка (некорректный курсор постраничной выдачи)", exception.getMessage()),
+                HttpStatus.BAD_REQUEST
+        );
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<?> handleConflictException(final BookingOverlapException exception) {
+        log.warn("Ошибка — период бронирования пересекается с подтверждённым бронированием: {}",
+                exception.getMessage());
+        return new ResponseEntity<>(
+                Map.of("Ошибка (период бронирования занят)", exception.getMessage()),
+                HttpStatus.CONFLICT
+        );
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<?> handleConflictException(final ConcurrentBookingUpdateException exception) {
+        log.warn("Ошибка — конкурентное изменение бронирования: {}", exception.getMessage());
+        return new ResponseEntity<>(
+                Map.of("Ошибка (конкурентное изменение бронирования)", exception.getMessage()),
+                HttpStatus.CONFLICT
+        );
+    }
+
     @ExceptionHandler
     public ResponseEntity<?> handleThrowable(final Exception exception) {
         log.warn("Internal server error: {}", exception.getMessage());
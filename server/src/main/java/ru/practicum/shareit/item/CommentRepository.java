@@ -1,11 +1,17 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     List<Comment> findByItemOrderByCreatedDesc(Item item);
+
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findByItemInOrderByCreatedDesc(Collection<Item> items);
 }
@@ -2,8 +2,12 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.ResourceETag;
 
 import java.util.List;
 
@@ -11,10 +15,12 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final ResourceETag resourceETag;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ResourceETag resourceETag) {
         this.itemService = itemService;
+        this.resourceETag = resourceETag;
     }
 
     @PostMapping
@@ -41,15 +47,20 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemInfoDto getItem(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemService.getItem(itemId, userId);
+    public ResponseEntity<byte[]> getItem(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
+                                          WebRequest request) {
+        return resourceETag.checkNotModified(request, itemService.getItem(itemId, userId));
     }
 
     @GetMapping()
-    public List<ItemInfoDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                    @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                    @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemService.getAll(userId, new MyPageRequest(from, size, Sort.unsorted()));
+    public ResponseEntity<List<ItemInfoDto>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                    @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(name = "after", required = false) String after) {
+        List<ItemInfoDto> items = (after != null)
+                ? itemService.getAll(userId, PageCursor.decode(after), size)
+                : itemService.getAll(userId, new MyPageRequest(from, size, Sort.unsorted()));
+        return PageCursor.toResponse(items, size, item -> PageCursor.of(item.getId()));
     }
 
     @GetMapping("/search")
@@ -1,26 +1,44 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
-import ru.practicum.shareit.user.User;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    String ITEM_DTO_QUERY = "select new ru.practicum.shareit.item.ItemDto(" +
+            "i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i ";
 
-    Page<Item> findByOwnerOrderByIdAsc(User owner, Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Item> findLockedById(Long id);
 
-    List<Item> findByOwnerOrderByIdAsc(User owner);
+    @Query("select i from Item i where i.owner.id = ?1 order by i.id")
+    Slice<Item> findByOwnerIdOrderByIdAsc(Long ownerId, Pageable pageable);
 
-    List<Item> findByRequestOrderByIdAsc(ItemRequest request);
+    @Query("select i from Item i where i.owner.id = ?1 and i.id > ?2 order by i.id")
+    List<Item> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long id, Pageable pageable);
 
-    @Query(" select i from Item i " +
+    List<Item> findByRequestInOrderByIdAsc(Collection<ItemRequest> requests);
+
+    List<ItemSearchIndex.IndexedItem> findByAvailableTrue();
+
+    @Query(ITEM_DTO_QUERY +
+            "where i.id in ?1")
+    List<ItemDto> findItemDtosByIdIn(Collection<Long> ids);
+
+    @Query(value = ITEM_DTO_QUERY +
             "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
             " or upper(i.description) like upper(concat('%', ?1, '%')))" +
-            " and i.available = true")
-    Page<Item> search(String text, Pageable pageable);
+            " and i.available = true " +
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
+    Slice<ItemDto> search(String text, Pageable pageable);
 }
@@ -0,0 +1,287 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный триграммный индекс по названию и описанию доступных вещей,
+ * включается свойством {@code shareit.search.index.enabled=true}.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, IndexedText> texts = new HashMap<>();
+    private final Postings allIds = new Postings();
+    private volatile boolean ready;
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.index.enabled:false}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Строит индекс заново по вещам из базы. Изменения, применённые до построения, отбрасываются: они уже
+     * закоммичены и видны в выборке, а изменения, закоммиченные позже, ждут блокировку и применяются после
+     * построения. Иначе триграммы текста, заменённого выборкой, остались бы в индексе.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            texts.clear();
+            allIds.clear();
+            List<IndexedItem> items = itemRepository.findByAvailableTrue();
+            for (IndexedItem item : items) {
+                put(item.getId(), item.getName(), item.getDescription());
+            }
+            ready = true;
+            log.info("Построен индекс поиска вещей: {} вещей, {} триграмм", texts.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+        Long id = item.getId();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        String name = item.getName();
+        String description = item.getDescription();
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                delete(id);
+                if (available) {
+                    put(id, name, description);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                delete(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Возвращает id доступных вещей, у которых название или описание содержит текст без учёта регистра.
+     * Сначала идут совпадения по названию, затем только по описанию, внутри каждой группы — по id.
+     * Кандидаты просматриваются по возрастанию id, и просмотр заканчивается, как только набрана страница,
+     * поэтому полный список совпадений не строится. Запрос короче трёх символов не сужается по триграммам:
+     * кандидатами становятся все проиндексированные вещи, и для дальних страниц или редких совпадений
+     * такой поиск линейно проверяет весь индекс.
+     */
+    public List<Long> search(String text, long offset, int size) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            long[] candidates = findCandidates(query);
+            List<Long> page = new ArrayList<>(size);
+            long end = offset + size;
+            long matched = 0;
+            for (int i = 0; i < candidates.length && matched < end; i++) {
+                if (texts.get(candidates[i]).name.contains(query) && matched++ >= offset) {
+                    page.add(candidates[i]);
+                }
+            }
+            for (int i = 0; i < candidates.length && matched < end; i++) {
+                IndexedText indexedText = texts.get(candidates[i]);
+                if (!indexedText.name.contains(query) && indexedText.description.contains(query)
+                        && matched++ >= offset) {
+                    page.add(candidates[i]);
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] findCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return allIds.toArray();
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        long[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).intersect(result);
+        }
+        return result;
+    }
+
+    private void put(Long id, String name, String description) {
+        IndexedText indexedText = new IndexedText(normalize(name), normalize(description));
+        texts.put(id, indexedText);
+        allIds.add(id);
+        for (String gram : indexedText.grams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+    }
+
+    private void delete(Long id) {
+        IndexedText indexedText = texts.remove(id);
+        if (indexedText == null) {
+            return;
+        }
+        allIds.remove(id);
+        for (String gram : indexedText.grams()) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String normalize(String text) {
+        return (text != null) ? text.toUpperCase(Locale.ROOT) : "";
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    public interface IndexedItem {
+        Long getId();
+
+        String getName();
+
+        String getDescription();
+    }
+
+    private static class IndexedText {
+        private final String name;
+        private final String description;
+
+        IndexedText(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+    }
+
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        long[] intersect(long[] sorted) {
+            long[] result = new long[Math.min(size, sorted.length)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size && j < sorted.length) {
+                if (ids[i] < sorted[j]) {
+                    i++;
+                } else if (ids[i] > sorted[j]) {
+                    j++;
+                } else {
+                    result[count++] = ids[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
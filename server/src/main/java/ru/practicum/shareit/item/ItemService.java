@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.PageCursor;
 
 import java.util.List;
 
@@ -17,5 +18,7 @@ public interface ItemService {
 
     List<ItemInfoDto> getAll(Long userId, PageRequest pageRequest);
 
+    List<ItemInfoDto> getAll(Long userId, PageCursor after, int size);
+
     List<ItemDto> searchItem(String text, PageRequest pageRequest);
 }
@@ -2,10 +2,11 @@ package ru.practicum.shareit.item;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.exception.CommentWithoutBookingException;
@@ -19,8 +20,11 @@ import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,30 +37,34 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
 
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository,
                            UserRepository userRepository,
                            BookingRepository bookingRepository,
                            CommentRepository commentRepository,
-                           ItemRequestRepository itemRequestRepository
+                           ItemRequestRepository itemRequestRepository,
+                           ItemSearchIndex itemSearchIndex
     ) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchIndex = itemSearchIndex;
     }
 
     @Override
     @Transactional
     public ItemDto createItem(ItemDto itemDto, Long userId) {
-        User owner = getOwnerById(userId);
+        User owner = userRepository.getExistingReference(userId);
         ItemRequest itemRequest = (itemDto.getRequestId() != null)
                 ? itemRequestRepository.findById(itemDto.getRequestId()).orElse(null)
                 : null;
         Item item = ItemMapper.toItem(itemDto, owner, itemRequest);
         Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
         log.info("Информация о вещи id {} сохранена", savedItem.getId());
         return ItemMapper.toItemDto(savedItem);
     }
@@ -64,10 +72,10 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public CommentInfoDto createComment(Long itemId, CommentDto commentDto, Long userId) {
-        User author = getOwnerById(userId);
+        User author = getUserById(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(
                 () -> new NonExistentIdException("Не найдена вещь с id " + itemId));
-        if (!bookingRepository.existsBookingByBookerAndEndBefore(author, LocalDateTime.now())) {
+        if (!bookingRepository.existsBookingByBookerIdAndEndBefore(userId, LocalDateTime.now())) {
             throw new CommentWithoutBookingException(
                     String.format("Пользователь id %d не может оставить комментарий по поводу вещи id %d",
                             userId, itemId));
@@ -82,7 +90,7 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public ItemDto updateItem(Long itemId, ItemDto itemDto, Long userId) {
-        User owner = getOwnerById(userId);
+        User owner = userRepository.getExistingReference(userId);
         ItemRequest itemRequest = (itemDto.getRequestId() != null)
                 ? itemRequestRepository.findById(itemDto.getRequestId()).orElse(null)
                 : null;
@@ -104,6 +112,7 @@ public class ItemServiceImpl implements ItemService {
 
         Item updatedItem = itemRepository.save(new Item(itemId, updatedName, updatedDescription,
                 updatedAvailable, owner, updatedItemRequest));
+        itemSearchIndex.index(updatedItem);
         log.info("Информация о вещи id {} обновлена", updatedItem.getId());
         return ItemMapper.toItemDto(updatedItem);
     }
@@ -113,6 +122,7 @@ public class ItemServiceImpl implements ItemService {
     public void deleteItem(Long id) {
         log.info("Выполняется удаление вещи id {}", id);
         itemRepository.deleteById(id);
+        itemSearchIndex.remove(id);
     }
 
     @Override
@@ -129,12 +139,23 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemInfoDto> getAll(Long userId, PageRequest pageRequest) {
-        User owner = getOwnerById(userId);
-        Page<Item> items = itemRepository.findByOwnerOrderByIdAsc(owner, pageRequest);
+        userRepository.checkExists(userId);
+        Slice<Item> items = itemRepository.findByOwnerIdOrderByIdAsc(userId, pageRequest);
         log.info("Сформирована постраничная выдача из списка всех вещей, " +
                         "принадлежащих пользователю id {} в количестве {} шт.",
-                userId, items.getSize());
-        return items.stream().map(this::getItemInfoDtoWithBookings).collect(Collectors.toList());
+                userId, items.getNumberOfElements());
+        return getItemInfoDtosWithBookings(items.getContent());
+    }
+
+    @Override
+    public List<ItemInfoDto> getAll(Long userId, PageCursor after, int size) {
+        userRepository.checkExists(userId);
+        List<Item> items = itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(userId, after.getId(),
+                PageRequest.of(0, size));
+        log.info("Сформирована выдача из списка всех вещей, принадлежащих пользователю id {}, " +
+                        "после вещи id {} в количестве {} шт.",
+                userId, after.getId(), items.size());
+        return getItemInfoDtosWithBookings(items);
     }
 
     @Override
@@ -143,23 +164,53 @@ public class ItemServiceImpl implements ItemService {
             log.info("Поиск по пустой строке вернул пустой список вещей.");
             return new ArrayList<>();
         }
-        Page<Item> items = itemRepository.search(text, pageRequest);
+        if (itemSearchIndex.isReady()) {
+            List<Long> ids = itemSearchIndex.search(text, pageRequest.getOffset(), pageRequest.getPageSize());
+            Map<Long, ItemDto> items = itemRepository.findItemDtosByIdIn(ids).stream()
+                    .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+            log.info("Сформирована постраничная выдача из индекса поиска по строке '{}' в количестве {} шт.",
+                    text, ids.size());
+            return ids.stream()
+                    .map(items::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+        Slice<ItemDto> items = itemRepository.search(text, pageRequest);
         log.info("Сформирована постраничная выдача из результатов поиска по строке '{}' в количестве {} шт.",
-                text, items.getSize());
-        return items.stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
+                text, items.getNumberOfElements());
+        return items.getContent();
     }
 
-    private User getOwnerById(Long userId) {
+    private User getUserById(Long userId) {
         return userRepository.findById(userId).orElseThrow(
                 () -> new NonExistentIdException("Не найден пользователь с id " + userId));
     }
 
     private ItemInfoDto getItemInfoDtoWithBookings(Item item) {
-        Booking lastBooking =
-                bookingRepository.findFirstByItemAndStartBeforeOrderByStartDesc(item, LocalDateTime.now());
-        Booking nextBooking =
-                bookingRepository.findFirstByItemAndStartAfterOrderByStartAsc(item, LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        Booking lastBooking = bookingRepository.findFirstByItemAndStartBeforeOrderByStartDesc(item, now);
+        Booking nextBooking = bookingRepository.findFirstByItemAndStartAfterAndEndAfterOrderByStartAsc(item, now, now);
         List<Comment> comments = commentRepository.findByItemOrderByCreatedDesc(item);
         return ItemMapper.toItemInfoDto(item, lastBooking, nextBooking, comments);
     }
+
+    private List<ItemInfoDto> getItemInfoDtosWithBookings(List<Item> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        Map<Long, Booking> lastBookings = bookingRepository.findLastBookingsByItemIds(itemIds, now).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity()));
+        Map<Long, Booking> nextBookings = bookingRepository.findNextBookingsByItemIds(itemIds, now).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity()));
+        Map<Long, List<Comment>> comments = commentRepository.findByItemInOrderByCreatedDesc(items).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        return items.stream()
+                .map(item -> ItemMapper.toItemInfoDto(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
 }
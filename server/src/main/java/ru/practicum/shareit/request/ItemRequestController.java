@@ -2,8 +2,12 @@ package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.ResourceETag;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 
@@ -12,12 +16,15 @@ import java.util.List;
 @RestController
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
+    private static final int DEFAULT_PAGE_SIZE = 10;
 
     private final ItemRequestService itemRequestService;
+    private final ResourceETag resourceETag;
 
     @Autowired
-    public ItemRequestController(ItemRequestService itemRequestService) {
+    public ItemRequestController(ItemRequestService itemRequestService, ResourceETag resourceETag) {
         this.itemRequestService = itemRequestService;
+        this.resourceETag = resourceETag;
     }
 
     @PostMapping()
@@ -27,21 +34,48 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestInfoDto getItemRequest(@PathVariable Long requestId,
-                                             @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestService.getItemRequest(requestId, userId);
+    public ResponseEntity<byte[]> getItemRequest(@PathVariable Long requestId,
+                                                 @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 WebRequest request) {
+        return resourceETag.checkNotModified(request, itemRequestService.getItemRequest(requestId, userId));
     }
 
+    /**
+     * Без параметров возвращает все запросы пользователя, как и раньше. Постраничная выдача включается
+     * параметром {@code from}, {@code size} или курсором {@code after}, как в {@code /requests/all}.
+     */
     @GetMapping()
-    public List<ItemRequestInfoDto> getAllForUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestService.getAllForUser(userId);
+    public ResponseEntity<List<ItemRequestInfoDto>> getAllForUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                  @RequestParam(name = "from", required = false)
+                                                                  Integer from,
+                                                                  @RequestParam(name = "size", required = false)
+                                                                  Integer size,
+                                                                  @RequestParam(name = "after", required = false)
+                                                                  String after) {
+        if (from == null && size == null && after == null) {
+            return ResponseEntity.ok(itemRequestService.getAllForUser(userId));
+        }
+        int pageSize = (size != null) ? size : DEFAULT_PAGE_SIZE;
+        List<ItemRequestInfoDto> requests = (after != null)
+                ? itemRequestService.getAllForUser(userId, PageCursor.decode(after), pageSize)
+                : itemRequestService.getAllForUser(userId,
+                new MyPageRequest((from != null) ? from : 0, pageSize, Sort.unsorted()));
+        return PageCursor.toResponse(requests, pageSize,
+                request -> PageCursor.of(request.getCreated(), request.getId()));
     }
 
     @GetMapping("/all")
-    public List<ItemRequestInfoDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                           @RequestParam(name = "from", defaultValue = "0")
-                                           Integer from,
-                                           @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemRequestService.getAll(userId, new MyPageRequest(from, size, Sort.unsorted()));
+    public ResponseEntity<List<ItemRequestInfoDto>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                           @RequestParam(name = "from", defaultValue = "0")
+                                                           Integer from,
+                                                           @RequestParam(name = "size", defaultValue = "10")
+                                                           Integer size,
+                                                           @RequestParam(name = "after", required = false)
+                                                           String after) {
+        List<ItemRequestInfoDto> requests = (after != null)
+                ? itemRequestService.getAll(userId, PageCursor.decode(after), size)
+                : itemRequestService.getAll(userId, new MyPageRequest(from, size, Sort.unsorted()));
+        return PageCursor.toResponse(requests, size,
+                request -> PageCursor.of(request.getCreated(), request.getId()));
     }
 }
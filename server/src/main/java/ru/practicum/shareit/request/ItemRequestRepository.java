@@ -1,15 +1,41 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import ru.practicum.shareit.user.User;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findByRequesterOrderByCreatedDesc(User requester);
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id = ?1 " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findByRequesterIdOrderByCreatedDescIdDesc(Long requesterId);
 
-    Page<ItemRequest> findByRequesterNotOrderByCreatedDesc(User requester, Pageable pageable);
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id = ?1 " +
+            "order by r.created desc, r.id desc")
+    Slice<ItemRequest> findByRequesterIdOrderByCreatedDescIdDesc(Long requesterId, Pageable pageable);
+
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id = ?1 " +
+            "and r.created <= ?2 and (r.created < ?2 or r.id < ?3) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findByRequesterIdBefore(Long requesterId, LocalDateTime cursorCreated, Long cursorId,
+                                              Pageable pageable);
+
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id <> ?1 " +
+            "order by r.created desc, r.id desc")
+    Slice<ItemRequest> findByRequesterIdNotOrderByCreatedDescIdDesc(Long requesterId, Pageable pageable);
+
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id <> ?1 " +
+            "and r.created <= ?2 and (r.created < ?2 or r.id < ?3) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findByRequesterIdNotBefore(Long requesterId, LocalDateTime cursorCreated, Long cursorId,
+                                                 Pageable pageable);
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 
@@ -14,5 +15,11 @@ public interface ItemRequestService {
 
     List<ItemRequestInfoDto> getAll(Long userId, PageRequest pageRequest);
 
+    List<ItemRequestInfoDto> getAll(Long userId, PageCursor after, int size);
+
     List<ItemRequestInfoDto> getAllForUser(Long userId);
+
+    List<ItemRequestInfoDto> getAllForUser(Long userId, PageRequest pageRequest);
+
+    List<ItemRequestInfoDto> getAllForUser(Long userId, PageCursor after, int size);
 }
@@ -2,10 +2,11 @@ package ru.practicum.shareit.request;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.exception.NonExistentIdException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -15,7 +16,9 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,7 +42,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     @Transactional
     public ItemRequestInfoDto createItemRequest(ItemRequestDto itemRequestDto, Long userId) {
-        User requester = getUserById(userId);
+        User requester = userRepository.getExistingReference(userId);
         ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto, requester, LocalDateTime.now());
         ItemRequest savedItemRequest = itemRequestRepository.save(itemRequest);
         log.info("Информация о запросе id {} сохранена", savedItemRequest.getId());
@@ -48,35 +51,69 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestInfoDto getItemRequest(Long id, Long userId) {
-        getUserById(userId);
+        userRepository.checkExists(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(id).orElseThrow(
                 () -> new NonExistentIdException("Не найден запрос с id " + id));
-        return getItemRequestInfoDtoWithItems(itemRequest);
+        return getItemRequestInfoDtosWithItems(List.of(itemRequest)).get(0);
     }
 
     @Override
     public List<ItemRequestInfoDto> getAll(Long userId, PageRequest pageRequest) {
-        User requester = getUserById(userId);
-        Page<ItemRequest> requests = itemRequestRepository.findByRequesterNotOrderByCreatedDesc(requester, pageRequest);
+        userRepository.checkExists(userId);
+        Slice<ItemRequest> requests = itemRequestRepository.findByRequesterIdNotOrderByCreatedDescIdDesc(userId,
+                pageRequest);
         log.info("Сформирована постраничная выдача из перечня всех запросов в количестве {} шт.",
-                requests.getSize());
-        return requests.stream().map(this::getItemRequestInfoDtoWithItems).collect(Collectors.toList());
+                requests.getNumberOfElements());
+        return getItemRequestInfoDtosWithItems(requests.getContent());
+    }
+
+    @Override
+    public List<ItemRequestInfoDto> getAll(Long userId, PageCursor after, int size) {
+        userRepository.checkExists(userId);
+        List<ItemRequest> requests = itemRequestRepository.findByRequesterIdNotBefore(userId,
+                after.requirePosition().getPosition(), after.getId(), PageRequest.of(0, size));
+        log.info("Сформирована выдача из перечня всех запросов после запроса id {} в количестве {} шт.",
+                after.getId(), requests.size());
+        return getItemRequestInfoDtosWithItems(requests);
     }
 
     @Override
     public List<ItemRequestInfoDto> getAllForUser(Long userId) {
-        User requester = getUserById(userId);
-        List<ItemRequest> requests = itemRequestRepository.findByRequesterOrderByCreatedDesc(requester);
-        return requests.stream().map(this::getItemRequestInfoDtoWithItems).collect(Collectors.toList());
+        userRepository.checkExists(userId);
+        List<ItemRequest> requests = itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(userId);
+        log.info("Сформирован перечень запросов пользователя id {} в количестве {} шт.", userId, requests.size());
+        return getItemRequestInfoDtosWithItems(requests);
     }
 
-    private User getUserById(Long userId) {
-        return userRepository.findById(userId).orElseThrow(
-                () -> new NonExistentIdException("Не найден пользователь с id " + userId));
+    @Override
+    public List<ItemRequestInfoDto> getAllForUser(Long userId, PageRequest pageRequest) {
+        userRepository.checkExists(userId);
+        Slice<ItemRequest> requests = itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(userId,
+                pageRequest);
+        log.info("Сформирована постраничная выдача запросов пользователя id {} в количестве {} шт.", userId,
+                requests.getNumberOfElements());
+        return getItemRequestInfoDtosWithItems(requests.getContent());
+    }
+
+    @Override
+    public List<ItemRequestInfoDto> getAllForUser(Long userId, PageCursor after, int size) {
+        userRepository.checkExists(userId);
+        List<ItemRequest> requests = itemRequestRepository.findByRequesterIdBefore(userId,
+                after.requirePosition().getPosition(), after.getId(), PageRequest.of(0, size));
+        log.info("Сформирована выдача запросов пользователя id {} после запроса id {} в количестве {} шт.", userId,
+                after.getId(), requests.size());
+        return getItemRequestInfoDtosWithItems(requests);
     }
 
-    private ItemRequestInfoDto getItemRequestInfoDtoWithItems(ItemRequest itemRequest) {
-        List<Item> items = itemRepository.findByRequestOrderByIdAsc(itemRequest);
-        return ItemRequestMapper.toItemRequestInfoDto(itemRequest, items);
+    private List<ItemRequestInfoDto> getItemRequestInfoDtosWithItems(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<Item>> itemsByRequestId = itemRepository.findByRequestInOrderByIdAsc(itemRequests).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toItemRequestInfoDto(itemRequest,
+                        itemsByRequestId.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 }
@@ -1,8 +1,29 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.exception.NonExistentIdException;
 
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    Slice<User> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Проверяет существование пользователя запросом exists, не загружая сущность.
+     */
+    default void checkExists(Long userId) {
+        if (!existsById(userId)) {
+            throw new NonExistentIdException("Не найден пользователь с id " + userId);
+        }
+    }
+
+    /**
+     * Ссылка на существующего пользователя для связей новых сущностей, без загрузки его полей.
+     */
+    default User getExistingReference(Long userId) {
+        checkExists(userId);
+        return getReferenceById(userId);
+    }
 }
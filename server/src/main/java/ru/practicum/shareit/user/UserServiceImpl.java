@@ -2,7 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -67,9 +67,9 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public List<UserDto> getAll(PageRequest pageRequest) {
-        Page<User> users = userRepository.findAll(pageRequest);
+        Slice<User> users = userRepository.findAllByOrderByIdAsc(pageRequest);
         log.info("Сформирована постраничная выдача из перечня всех пользователей в количестве {} чел.",
-                users.getSize());
+                users.getNumberOfElements());
         return users.stream().map(UserMapper::toUserDto).collect(Collectors.toList());
     }
 }
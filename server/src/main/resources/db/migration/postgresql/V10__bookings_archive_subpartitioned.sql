@@ -0,0 +1,205 @@
+-- Архивная секция сама секционируется по дате окончания: истёкшая месячная секция отсоединяется от bookings
+-- и присоединяется к bookings_archive целиком, строки не копируются. Прежняя архивная таблица становится
+-- первой секцией архива bookings_archive_legacy.
+--
+-- У каждой месячной секции есть проверенное ограничение CHECK на её диапазон, поэтому ATTACH PARTITION
+-- не проверяет её строки ни при присоединении к bookings, ни при переносе в архив, ни при присоединении
+-- архива с новой границей. Секцию по умолчанию при присоединении архива PostgreSQL проверяет на строки
+-- из нового диапазона; это тоже обходится ограничением CHECK (end_date >= граница), которое готовит
+-- bookings_archive_prepare_bound. Она же заранее создаёт секции для месяцев до новой границы, строки
+-- которых лежат в секции по умолчанию, — после этого переносить в архив построчно нечего.
+
+DROP FUNCTION bookings_archive_prepare_bound(INT, TIMESTAMP);
+DROP FUNCTION bookings_archive_drop_bound_checks(DATE);
+DROP FUNCTION bookings_archive_bound_check(DATE);
+
+-- Добавляет месячной секции ограничение на её диапазон, выводя месяц из имени bookings_pYYYYMM.
+CREATE FUNCTION bookings_add_end_date_check(partition_name TEXT) RETURNS VOID AS
+$$
+DECLARE
+    part_from DATE := to_date(substr(partition_name, 11), 'YYYYMM');
+BEGIN
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (end_date >= %L AND end_date < %L)',
+                   partition_name, 'ck_' || partition_name || '_end_date',
+                   part_from, (part_from + INTERVAL '1 month')::date);
+END
+$$ LANGUAGE plpgsql;
+
+DO
+$$
+DECLARE
+    bound      DATE := bookings_archive_bound();
+    check_name TEXT;
+    part       RECORD;
+BEGIN
+    FOR check_name IN
+        SELECT conname FROM pg_constraint WHERE conrelid = 'bookings_archive'::regclass AND contype = 'c'
+        LOOP
+            EXECUTE format('ALTER TABLE bookings_archive DROP CONSTRAINT %I', check_name);
+        END LOOP;
+    ALTER TABLE bookings DETACH PARTITION bookings_archive;
+    ALTER TABLE bookings_archive RENAME TO bookings_archive_legacy;
+    EXECUTE format('ALTER TABLE bookings_archive_legacy ADD CONSTRAINT ck_bookings_archive_legacy_end_date '
+                       || 'CHECK (end_date < %L)', bound);
+    CREATE TABLE bookings_archive (LIKE bookings INCLUDING DEFAULTS) PARTITION BY RANGE (end_date);
+    EXECUTE format('ALTER TABLE bookings_archive ATTACH PARTITION bookings_archive_legacy '
+                       || 'FOR VALUES FROM (MINVALUE) TO (%L)', bound);
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION bookings_archive FOR VALUES FROM (MINVALUE) TO (%L)',
+                   bound);
+
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bookings'::regclass
+          AND c.relname ~ '^bookings_p[0-9]{6}$'
+        LOOP
+            PERFORM bookings_add_end_date_check(part.relname);
+        END LOOP;
+END
+$$;
+
+-- Создаёт месячную секцию, начинающуюся с part_from, если её ещё нет и месяц не в архиве.
+-- Строки этого месяца, уже попавшие в секцию по умолчанию, переносятся в новую секцию.
+CREATE FUNCTION bookings_create_partition(part_from DATE) RETURNS BOOLEAN AS
+$$
+DECLARE
+    part_to   DATE := (part_from + INTERVAL '1 month')::date;
+    part_name TEXT := 'bookings_p' || to_char(part_from, 'YYYYMM');
+BEGIN
+    IF to_regclass(part_name) IS NOT NULL OR part_from < bookings_archive_bound() THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', part_name);
+    PERFORM bookings_add_end_date_check(part_name);
+    EXECUTE format('WITH moved AS (DELETE FROM bookings_default '
+                       || 'WHERE end_date >= $1 AND end_date < $2 RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved', part_name)
+        USING part_from, part_to;
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   part_name, part_from, part_to);
+    PERFORM bookings_add_no_overlap(part_name);
+    RETURN TRUE;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION bookings_create_partitions(months_ahead INT, as_of TIMESTAMP DEFAULT now()) RETURNS INT AS
+$$
+DECLARE
+    created INT := 0;
+BEGIN
+    FOR i IN 0..months_ahead
+        LOOP
+            IF bookings_create_partition((date_trunc('month', as_of) + make_interval(months => i))::date) THEN
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END
+$$ LANGUAGE plpgsql;
+
+-- Создаёт недостающие месячные секции от границы архива до bound, чтобы в секции по умолчанию
+-- не осталось строк, которые должны уйти в архив.
+CREATE FUNCTION bookings_create_partitions_until(bound DATE) RETURNS VOID AS
+$$
+DECLARE
+    part_from DATE := bookings_archive_bound();
+BEGIN
+    WHILE part_from < bound
+        LOOP
+            PERFORM bookings_create_partition(part_from);
+            part_from := (part_from + INTERVAL '1 month')::date;
+        END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION bookings_default_bound_check(bound DATE) RETURNS TEXT AS
+$$
+SELECT 'ck_bookings_default_from_' || to_char(bound, 'YYYYMMDD')
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Удаляет с секции по умолчанию ограничения-границы, кроме ограничения для keep_bound.
+CREATE FUNCTION bookings_default_drop_bound_checks(keep_bound DATE) RETURNS VOID AS
+$$
+DECLARE
+    check_name TEXT;
+BEGIN
+    FOR check_name IN
+        SELECT conname
+        FROM pg_constraint
+        WHERE conrelid = 'bookings_default'::regclass
+          AND conname LIKE 'ck\_bookings\_default\_from\_%'
+          AND conname IS DISTINCT FROM bookings_default_bound_check(keep_bound)
+        LOOP
+            EXECUTE format('ALTER TABLE bookings_default DROP CONSTRAINT %I', check_name);
+        END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+-- Готовит перенос в архив: создаёт секции месяцев до новой границы и добавляет на секцию по умолчанию
+-- непроверенное ограничение end_date >= граница. Возвращает имя ограничения, либо NULL, если переносить
+-- в архив нечего. Проверку ограничения (ALTER TABLE bookings_default VALIDATE CONSTRAINT) выполняют
+-- отдельной транзакцией: она берёт SHARE UPDATE EXCLUSIVE и не мешает чтению и записи бронирований.
+CREATE FUNCTION bookings_archive_prepare_bound(retention_months INT, as_of TIMESTAMP DEFAULT now()) RETURNS TEXT AS
+$$
+DECLARE
+    new_bound  DATE := (date_trunc('month', as_of) - make_interval(months => retention_months))::date;
+    check_name TEXT := bookings_default_bound_check(new_bound);
+BEGIN
+    IF new_bound <= bookings_archive_bound() THEN
+        RETURN NULL;
+    END IF;
+    PERFORM bookings_create_partitions_until(new_bound);
+    PERFORM bookings_default_drop_bound_checks(new_bound);
+    IF NOT EXISTS(SELECT 1 FROM pg_constraint WHERE conrelid = 'bookings_default'::regclass
+                                                AND conname = check_name) THEN
+        EXECUTE format('ALTER TABLE bookings_default ADD CONSTRAINT %I CHECK (end_date >= %L) NOT VALID',
+                       check_name, new_bound);
+    END IF;
+    RETURN check_name;
+END
+$$ LANGUAGE plpgsql;
+
+-- Переносит в архив месячные секции, закончившиеся раньше чем retention_months месяцев назад, и сдвигает
+-- верхнюю границу архива. Если перенос не подготовлен, недостающие секции и ограничение на секции
+-- по умолчанию создаются здесь же, под блокировкой bookings.
+CREATE OR REPLACE FUNCTION bookings_archive_partitions(retention_months INT, as_of TIMESTAMP DEFAULT now()) RETURNS INT AS
+$$
+DECLARE
+    new_bound  DATE := (date_trunc('month', as_of) - make_interval(months => retention_months))::date;
+    check_name TEXT := bookings_default_bound_check(new_bound);
+    part       RECORD;
+    archived   INT  := 0;
+BEGIN
+    IF new_bound <= bookings_archive_bound() THEN
+        RETURN 0;
+    END IF;
+    PERFORM bookings_create_partitions_until(new_bound);
+    PERFORM bookings_default_drop_bound_checks(new_bound);
+    IF NOT EXISTS(SELECT 1 FROM pg_constraint WHERE conrelid = 'bookings_default'::regclass
+                                                AND conname = check_name AND convalidated) THEN
+        EXECUTE format('ALTER TABLE bookings_default DROP CONSTRAINT IF EXISTS %I', check_name);
+        EXECUTE format('ALTER TABLE bookings_default ADD CONSTRAINT %I CHECK (end_date >= %L)',
+                       check_name, new_bound);
+    END IF;
+    ALTER TABLE bookings DETACH PARTITION bookings_archive;
+    FOR part IN
+        SELECT c.relname, to_date(substr(c.relname, 11), 'YYYYMM') AS part_from
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bookings'::regclass
+          AND c.relname ~ '^bookings_p[0-9]{6}$'
+          AND to_date(substr(c.relname, 11), 'YYYYMM') < new_bound
+        ORDER BY 2
+        LOOP
+            EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', part.relname);
+            EXECUTE format('ALTER TABLE bookings_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           part.relname, part.part_from, (part.part_from + INTERVAL '1 month')::date);
+            archived := archived + 1;
+        END LOOP;
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION bookings_archive FOR VALUES FROM (MINVALUE) TO (%L)',
+                   new_bound);
+    EXECUTE format('ALTER TABLE bookings_default DROP CONSTRAINT %I', check_name);
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
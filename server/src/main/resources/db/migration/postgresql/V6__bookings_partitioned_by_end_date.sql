@@ -0,0 +1,141 @@
+-- Бронирования секционируются по дате окончания: архивная секция для завершённых давно,
+-- месячные секции для недавних и будущих, секция по умолчанию для дат за горизонтом.
+-- Ограничение исключения пересечений одобренных бронирований (V4) действует в пределах секции,
+-- пересечения между секциями исключает триггер из V7.
+
+ALTER TABLE bookings RENAME TO bookings_legacy;
+ALTER TABLE bookings_legacy RENAME CONSTRAINT bookings_pkey TO bookings_legacy_pkey;
+ALTER TABLE bookings_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE bookings_id_seq;
+SELECT setval('bookings_id_seq', COALESCE((SELECT max(id) FROM bookings_legacy), 0) + 1, false);
+
+CREATE TABLE bookings
+(
+    id         BIGINT                      NOT NULL DEFAULT nextval('bookings_id_seq'),
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT REFERENCES items (id),
+    booker_id  BIGINT REFERENCES users (id),
+    status     VARCHAR(10),
+    version    BIGINT                      NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, end_date)
+) PARTITION BY RANGE (end_date);
+
+ALTER SEQUENCE bookings_id_seq OWNED BY bookings.id;
+
+DO
+$$
+BEGIN
+    EXECUTE format('CREATE TABLE bookings_archive PARTITION OF bookings FOR VALUES FROM (MINVALUE) TO (%L)',
+                   date_trunc('month', now())::date);
+END
+$$;
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE OR REPLACE FUNCTION bookings_add_no_overlap(partition_name TEXT) RETURNS VOID AS
+$$
+BEGIN
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist '
+                       || '(item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status = ''APPROVED'')',
+                   partition_name, 'ex_' || partition_name || '_approved_period');
+END
+$$ LANGUAGE plpgsql;
+
+-- Верхняя граница архивной секции: все бронирования, закончившиеся раньше, лежат в архиве.
+CREATE OR REPLACE FUNCTION bookings_archive_bound() RETURNS DATE AS
+$$
+SELECT substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::date
+FROM pg_class c
+WHERE c.relname = 'bookings_archive'
+  AND c.relnamespace = current_schema()::regnamespace
+$$ LANGUAGE sql STABLE;
+
+-- Создаёт месячные секции с текущего месяца на months_ahead месяцев вперёд.
+-- Строки нового месяца, уже попавшие в секцию по умолчанию, переносятся в новую секцию.
+CREATE OR REPLACE FUNCTION bookings_create_partitions(months_ahead INT) RETURNS INT AS
+$$
+DECLARE
+    part_from DATE;
+    part_to   DATE;
+    part_name TEXT;
+    created   INT := 0;
+BEGIN
+    FOR i IN 0..months_ahead
+        LOOP
+            part_from := (date_trunc('month', now()) + make_interval(months => i))::date;
+            part_to := (part_from + INTERVAL '1 month')::date;
+            part_name := 'bookings_p' || to_char(part_from, 'YYYYMM');
+            CONTINUE WHEN to_regclass(part_name) IS NOT NULL OR part_from < bookings_archive_bound();
+            EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', part_name);
+            EXECUTE format('WITH moved AS (DELETE FROM bookings_default '
+                               || 'WHERE end_date >= $1 AND end_date < $2 RETURNING *) '
+                               || 'INSERT INTO %I SELECT * FROM moved', part_name)
+                USING part_from, part_to;
+            EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           part_name, part_from, part_to);
+            PERFORM bookings_add_no_overlap(part_name);
+            created := created + 1;
+        END LOOP;
+    RETURN created;
+END
+$$ LANGUAGE plpgsql;
+
+-- Переносит в архив месячные секции, закончившиеся раньше чем retention_months месяцев назад,
+-- и сдвигает верхнюю границу архивной секции.
+CREATE OR REPLACE FUNCTION bookings_archive_partitions(retention_months INT) RETURNS INT AS
+$$
+DECLARE
+    new_bound DATE := (date_trunc('month', now()) - make_interval(months => retention_months))::date;
+    part      RECORD;
+    archived  INT  := 0;
+BEGIN
+    IF new_bound <= bookings_archive_bound() THEN
+        RETURN 0;
+    END IF;
+    ALTER TABLE bookings DETACH PARTITION bookings_archive;
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bookings'::regclass
+          AND c.relname ~ '^bookings_p[0-9]{6}$'
+          AND to_date(substr(c.relname, 11), 'YYYYMM') < new_bound
+        LOOP
+            EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', part.relname);
+            EXECUTE format('INSERT INTO bookings_archive SELECT * FROM %I', part.relname);
+            EXECUTE format('DROP TABLE %I', part.relname);
+            archived := archived + 1;
+        END LOOP;
+    WITH moved AS (DELETE FROM bookings_default WHERE end_date < new_bound RETURNING *)
+    INSERT INTO bookings_archive SELECT * FROM moved;
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION bookings_archive FOR VALUES FROM (MINVALUE) TO (%L)',
+                   new_bound);
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
+
+SELECT bookings_add_no_overlap('bookings_archive');
+SELECT bookings_add_no_overlap('bookings_default');
+SELECT bookings_create_partitions(3);
+
+INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, version)
+SELECT id, start_date, end_date, item_id, booker_id, status, version
+FROM bookings_legacy;
+
+DROP TABLE bookings_legacy;
+
+CREATE INDEX ix_bookings_booker_start
+    ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX ix_bookings_booker_status_start
+    ON bookings (booker_id, status, start_date DESC, id DESC);
+
+CREATE INDEX ix_bookings_booker_end
+    ON bookings (booker_id, end_date);
+
+CREATE INDEX ix_bookings_item_start
+    ON bookings (item_id, start_date);
+
+CREATE INDEX ix_bookings_item_status_start
+    ON bookings (item_id, status, start_date);
@@ -0,0 +1,30 @@
+-- Ограничения исключения (V4, V6) действуют только в пределах секции, а бронирование, начавшееся
+-- в одном месяце, может пересекаться с бронированием из соседней секции или из архива.
+-- Триггер проверяет пересечение одобренных бронирований вещи по всей таблице; рекомендательная
+-- блокировка по id вещи упорядочивает конкурентные проверки до конца транзакции.
+
+CREATE OR REPLACE FUNCTION bookings_check_no_overlap() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF NEW.status IS DISTINCT FROM 'APPROVED' THEN
+        RETURN NEW;
+    END IF;
+    PERFORM pg_advisory_xact_lock(NEW.item_id);
+    IF EXISTS(SELECT 1
+              FROM bookings b
+              WHERE b.item_id = NEW.item_id
+                AND b.status = 'APPROVED'
+                AND b.id <> NEW.id
+                AND tsrange(b.start_date, b.end_date) && tsrange(NEW.start_date, NEW.end_date)) THEN
+        RAISE EXCEPTION 'Вещь % уже забронирована на период с % по %', NEW.item_id, NEW.start_date, NEW.end_date
+            USING ERRCODE = 'exclusion_violation', CONSTRAINT = 'ex_bookings_item_approved_period';
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tr_bookings_no_overlap
+    BEFORE INSERT OR UPDATE OF status, start_date, end_date, item_id
+    ON bookings
+    FOR EACH ROW
+EXECUTE FUNCTION bookings_check_no_overlap();
@@ -0,0 +1,65 @@
+-- Функции обслуживания секций принимают момент, от которого отсчитываются месяцы; по умолчанию — now().
+-- Так обслуживание можно проверить и повторить для произвольной даты, не подменяя часы сервера.
+
+DROP FUNCTION bookings_create_partitions(INT);
+DROP FUNCTION bookings_archive_partitions(INT);
+
+CREATE FUNCTION bookings_create_partitions(months_ahead INT, as_of TIMESTAMP DEFAULT now()) RETURNS INT AS
+$$
+DECLARE
+    part_from DATE;
+    part_to   DATE;
+    part_name TEXT;
+    created   INT := 0;
+BEGIN
+    FOR i IN 0..months_ahead
+        LOOP
+            part_from := (date_trunc('month', as_of) + make_interval(months => i))::date;
+            part_to := (part_from + INTERVAL '1 month')::date;
+            part_name := 'bookings_p' || to_char(part_from, 'YYYYMM');
+            CONTINUE WHEN to_regclass(part_name) IS NOT NULL OR part_from < bookings_archive_bound();
+            EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', part_name);
+            EXECUTE format('WITH moved AS (DELETE FROM bookings_default '
+                               || 'WHERE end_date >= $1 AND end_date < $2 RETURNING *) '
+                               || 'INSERT INTO %I SELECT * FROM moved', part_name)
+                USING part_from, part_to;
+            EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           part_name, part_from, part_to);
+            PERFORM bookings_add_no_overlap(part_name);
+            created := created + 1;
+        END LOOP;
+    RETURN created;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION bookings_archive_partitions(retention_months INT, as_of TIMESTAMP DEFAULT now()) RETURNS INT AS
+$$
+DECLARE
+    new_bound DATE := (date_trunc('month', as_of) - make_interval(months => retention_months))::date;
+    part      RECORD;
+    archived  INT  := 0;
+BEGIN
+    IF new_bound <= bookings_archive_bound() THEN
+        RETURN 0;
+    END IF;
+    ALTER TABLE bookings DETACH PARTITION bookings_archive;
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bookings'::regclass
+          AND c.relname ~ '^bookings_p[0-9]{6}$'
+          AND to_date(substr(c.relname, 11), 'YYYYMM') < new_bound
+        LOOP
+            EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', part.relname);
+            EXECUTE format('INSERT INTO bookings_archive SELECT * FROM %I', part.relname);
+            EXECUTE format('DROP TABLE %I', part.relname);
+            archived := archived + 1;
+        END LOOP;
+    WITH moved AS (DELETE FROM bookings_default WHERE end_date < new_bound RETURNING *)
+    INSERT INTO bookings_archive SELECT * FROM moved;
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION bookings_archive FOR VALUES FROM (MINVALUE) TO (%L)',
+                   new_bound);
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,93 @@
+-- Архивная секция присоединяется обратно без проверки всех её строк под блокировкой ACCESS EXCLUSIVE
+-- на bookings: перед ATTACH PARTITION на ней уже есть проверенное ограничение CHECK (end_date < граница),
+-- из которого следует ограничение секции. После присоединения ограничение удаляется.
+--
+-- Ограничение готовит bookings_archive_prepare_bound: добавляет его как NOT VALID, а проверку
+-- (ALTER TABLE bookings_archive VALIDATE CONSTRAINT) выполняют отдельной транзакцией до переноса —
+-- она берёт SHARE UPDATE EXCLUSIVE и не мешает чтению и записи бронирований. Если ограничение
+-- не подготовлено, bookings_archive_partitions добавляет его сама, проверяя строки архива.
+
+CREATE FUNCTION bookings_archive_bound_check(bound DATE) RETURNS TEXT AS
+$$
+SELECT 'ck_bookings_archive_before_' || to_char(bound, 'YYYYMMDD')
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Удаляет с архивной секции ограничения-границы, кроме ограничения для keep_bound.
+CREATE FUNCTION bookings_archive_drop_bound_checks(keep_bound DATE) RETURNS VOID AS
+$$
+DECLARE
+    check_name TEXT;
+BEGIN
+    FOR check_name IN
+        SELECT conname
+        FROM pg_constraint
+        WHERE conrelid = 'bookings_archive'::regclass
+          AND conname LIKE 'ck\_bookings\_archive\_before\_%'
+          AND conname IS DISTINCT FROM bookings_archive_bound_check(keep_bound)
+        LOOP
+            EXECUTE format('ALTER TABLE bookings_archive DROP CONSTRAINT %I', check_name);
+        END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+-- Добавляет на архивную секцию непроверенное ограничение новой границы и возвращает его имя,
+-- либо NULL, если переносить в архив нечего.
+CREATE FUNCTION bookings_archive_prepare_bound(retention_months INT, as_of TIMESTAMP DEFAULT now()) RETURNS TEXT AS
+$$
+DECLARE
+    new_bound  DATE := (date_trunc('month', as_of) - make_interval(months => retention_months))::date;
+    check_name TEXT := bookings_archive_bound_check(new_bound);
+BEGIN
+    IF new_bound <= bookings_archive_bound() THEN
+        RETURN NULL;
+    END IF;
+    PERFORM bookings_archive_drop_bound_checks(new_bound);
+    IF NOT EXISTS(SELECT 1 FROM pg_constraint WHERE conrelid = 'bookings_archive'::regclass
+                                                AND conname = check_name) THEN
+        EXECUTE format('ALTER TABLE bookings_archive ADD CONSTRAINT %I CHECK (end_date < %L) NOT VALID',
+                       check_name, new_bound);
+    END IF;
+    RETURN check_name;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION bookings_archive_partitions(retention_months INT, as_of TIMESTAMP DEFAULT now()) RETURNS INT AS
+$$
+DECLARE
+    new_bound  DATE := (date_trunc('month', as_of) - make_interval(months => retention_months))::date;
+    check_name TEXT := bookings_archive_bound_check(new_bound);
+    part       RECORD;
+    archived   INT  := 0;
+BEGIN
+    IF new_bound <= bookings_archive_bound() THEN
+        RETURN 0;
+    END IF;
+    PERFORM bookings_archive_drop_bound_checks(new_bound);
+    IF NOT EXISTS(SELECT 1 FROM pg_constraint WHERE conrelid = 'bookings_archive'::regclass
+                                                AND conname = check_name AND convalidated) THEN
+        EXECUTE format('ALTER TABLE bookings_archive DROP CONSTRAINT IF EXISTS %I', check_name);
+        EXECUTE format('ALTER TABLE bookings_archive ADD CONSTRAINT %I CHECK (end_date < %L)',
+                       check_name, new_bound);
+    END IF;
+    ALTER TABLE bookings DETACH PARTITION bookings_archive;
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bookings'::regclass
+          AND c.relname ~ '^bookings_p[0-9]{6}$'
+          AND to_date(substr(c.relname, 11), 'YYYYMM') < new_bound
+        LOOP
+            EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', part.relname);
+            EXECUTE format('INSERT INTO bookings_archive SELECT * FROM %I', part.relname);
+            EXECUTE format('DROP TABLE %I', part.relname);
+            archived := archived + 1;
+        END LOOP;
+    WITH moved AS (DELETE FROM bookings_default WHERE end_date < new_bound RETURNING *)
+    INSERT INTO bookings_archive SELECT * FROM moved;
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION bookings_archive FOR VALUES FROM (MINVALUE) TO (%L)',
+                   new_bound);
+    EXECUTE format('ALTER TABLE bookings_archive DROP CONSTRAINT %I', check_name);
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,167 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.item.CommentInfoDto;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.SqlStatementCounter")
+public class FetchPlanTest {
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    CommentRepository commentRepository;
+
+    User owner;
+    User booker;
+    Item item;
+    Booking booking;
+    Comment comment;
+    final LocalDateTime now = LocalDateTime.of(2023, 1, 1, 12, 0);
+
+    @BeforeEach
+    void beforeEach() {
+        owner = entityManager.persist(new User(null, "Owner", "owner@mail.com"));
+        booker = entityManager.persist(new User(null, "Booker", "booker@mail.com"));
+        final ItemRequest request = entityManager.persist(new ItemRequest(null, "Request", booker, now));
+        item = entityManager.persist(new Item(null, "Item", "Item description", true, owner, request));
+        entityManager.persist(new Item(null, "Other item", "Other item description", true, booker, null));
+        booking = entityManager.persist(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                BookingStatus.APPROVED));
+        entityManager.persist(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                BookingStatus.WAITING));
+        comment = entityManager.persist(new Comment(null, "Comment", item, booker, now));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void bookingsForBookerAreMappedInOneStatementTest() {
+        final List<BookingInfoDto> bookings = assertSingleStatement(() -> bookingRepository
+                .findByBookerIdOrderByStartDescIdDesc(booker.getId(), PageRequest.of(0, 10)).getContent());
+
+        assertEquals(2, bookings.size());
+        assertEquals("Item", bookings.get(0).getItem().getName());
+        assertEquals("Booker", bookings.get(0).getBooker().getName());
+    }
+
+    @Test
+    void bookingsForOwnerAreMappedInOneStatementTest() {
+        final List<BookingInfoDto> bookings = assertSingleStatement(() -> bookingRepository
+                .findByItemOwnerIdBefore(owner.getId(), now.plusDays(10), Long.MAX_VALUE, PageRequest.of(0, 10)));
+
+        assertEquals(2, bookings.size());
+        assertEquals("booker@mail.com", bookings.get(1).getBooker().getEmail());
+    }
+
+    @Test
+    void bookingByIdIsMappedInOneStatementTest() {
+        final BookingInfoDto bookingInfoDto = assertSingleStatement(() -> {
+            final Booking found = bookingRepository.findById(booking.getId()).orElseThrow();
+            assertEquals(owner.getId(), found.getItem().getOwner().getId());
+            return BookingMapper.toBookingInfoDto(found);
+        });
+
+        assertEquals("Item description", bookingInfoDto.getItem().getDescription());
+    }
+
+    @Test
+    void searchedItemsAreMappedInOneStatementTest() {
+        final List<ItemDto> items = assertSingleStatement(() -> itemRepository
+                .search("item", PageRequest.of(0, 10)).getContent());
+
+        assertEquals(2, items.size());
+        assertEquals(item.getRequest().getId(), items.get(0).getRequestId());
+    }
+
+    @Test
+    void requestItemsAreMappedInOneStatementTest() {
+        final List<ItemRequestInfoDto.Item> items = assertSingleStatement(() -> itemRepository
+                .findByRequestInOrderByIdAsc(List.of(item.getRequest())).stream()
+                .map(ItemRequestMapper::toItemRequestInfoDtoItem)
+                .collect(Collectors.toList()));
+
+        assertEquals(1, items.size());
+        assertEquals(owner.getId(), items.get(0).getOwnerId());
+        assertEquals(item.getRequest().getId(), items.get(0).getRequestId());
+    }
+
+    @Test
+    void commentsAreMappedInOneStatementTest() {
+        final List<String> authors = assertSingleStatement(() -> commentRepository
+                .findByItemInOrderByCreatedDesc(List.of(item)).stream()
+                .map(CommentMapper::toCommentInfoDto)
+                .map(CommentInfoDto::getAuthorName)
+                .collect(Collectors.toList()));
+
+        assertEquals(List.of("Booker"), authors);
+    }
+
+    @Test
+    void lastBookingsAreMappedInOneStatementTest() {
+        final List<Long> bookerIds = assertSingleStatement(() -> bookingRepository
+                .findLastBookingsByItemIds(List.of(item.getId()), now).stream()
+                .map(BookingMapper::toBookingDto)
+                .map(BookingDto::getBookerId)
+                .collect(Collectors.toList()));
+
+        assertEquals(List.of(booker.getId()), bookerIds);
+    }
+
+    @Test
+    void lazyAssociationsAreNotLoadedByToStringOrHashCodeTest() {
+        final List<Object> entities = List.of(
+                entityManager.find(Booking.class, booking.getId()),
+                entityManager.find(Item.class, item.getId()),
+                entityManager.find(ItemRequest.class, item.getRequest().getId()),
+                entityManager.find(Comment.class, comment.getId()));
+        SqlStatementCounter.reset();
+
+        entities.forEach(entity -> assertFalse(entity.toString().isEmpty()));
+        assertEquals(entities.size(), new HashSet<>(entities).size());
+
+        assertEquals(List.of(), SqlStatementCounter.statements());
+    }
+
+    private <T> T assertSingleStatement(Supplier<T> query) {
+        SqlStatementCounter.reset();
+        final T result = query.get();
+        final List<String> statements = SqlStatementCounter.statements();
+
+        assertEquals(1, statements.size(), statements::toString);
+        return result;
+    }
+}
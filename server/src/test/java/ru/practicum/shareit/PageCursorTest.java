@@ -0,0 +1,50 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.InvalidPageCursorException;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageCursorTest {
+
+    @Test
+    void encodeAndDecodeWithPositionTest() {
+        final PageCursor cursor = PageCursor.of(LocalDateTime.of(2022, 10, 1, 12, 30, 15, 123000000), 42L);
+        final PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertEquals(cursor, decoded.requirePosition());
+    }
+
+    @Test
+    void encodeAndDecodeIdOnlyTest() {
+        final PageCursor cursor = PageCursor.of(7L);
+        final PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertNull(decoded.getPosition());
+        assertThrows(InvalidPageCursorException.class, decoded::requirePosition);
+    }
+
+    @Test
+    void decodeInvalidCursorTest() {
+        assertThrows(InvalidPageCursorException.class, () -> PageCursor.decode("%%%"));
+        assertThrows(InvalidPageCursorException.class, () -> PageCursor.decode("bm90LWFuLWlk"));
+    }
+
+    @Test
+    void nextCursorHeaderOnlyForFullPageTest() {
+        final ResponseEntity<List<Long>> fullPage = PageCursor.toResponse(List.of(1L, 2L), 2, PageCursor::of);
+        final ResponseEntity<List<Long>> lastPage = PageCursor.toResponse(List.of(3L), 2, PageCursor::of);
+        final ResponseEntity<List<Long>> emptyPage = PageCursor.toResponse(Collections.emptyList(), 2, PageCursor::of);
+
+        assertEquals(PageCursor.of(2L).encode(), fullPage.getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER));
+        assertFalse(lastPage.getHeaders().containsKey(PageCursor.NEXT_CURSOR_HEADER));
+        assertFalse(emptyPage.getHeaders().containsKey(PageCursor.NEXT_CURSOR_HEADER));
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.SqlStatementCounter")
+public class PagedQueryCountTest {
+    private static final int USERS = 20;
+    private static final int ITEMS_PER_USER = 5;
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+
+    User owner;
+    User booker;
+    Set<Long> ownerItemIds;
+    final LocalDateTime now = LocalDateTime.of(2023, 1, 1, 12, 0);
+    final PageRequest pageRequest = new MyPageRequest(2, 10, Sort.unsorted());
+
+    @BeforeEach
+    void beforeEach() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(new User(null, "User " + i, "user" + i + "@mail.com")));
+        }
+        owner = users.get(0);
+        booker = users.get(1);
+
+        List<Item> items = new ArrayList<>();
+        for (User user : users) {
+            itemRequestRepository.save(new ItemRequest(null, "Request of " + user.getName(), user, now));
+            for (int i = 0; i < ITEMS_PER_USER; i++) {
+                items.add(itemRepository.save(new Item(null, "Item " + i, "Item description " + i,
+                        true, user, null)));
+            }
+        }
+
+        ownerItemIds = items.subList(0, ITEMS_PER_USER).stream().map(Item::getId).collect(Collectors.toSet());
+
+        for (Item item : items) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusDays(i - BOOKINGS_PER_ITEM / 2);
+                bookingRepository.save(new Booking(null, start, start.plusDays(2), item,
+                        (i % 2 == 0) ? booker : owner, BookingStatus.APPROVED));
+            }
+        }
+        bookingRepository.flush();
+    }
+
+    @Test
+    void slicedQueriesDoNotCountTest() {
+        final Long bookerId = booker.getId();
+        final Long ownerId = owner.getId();
+        assertSingleStatement(() -> bookingRepository.findByBookerIdOrderByStartDescIdDesc(bookerId, pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(bookerId,
+                BookingStatus.APPROVED, pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                bookerId, now, now, pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByBookerIdAndEndBeforeOrderByStartDescIdDesc(bookerId, now,
+                pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByBookerIdAndStartAfterOrderByStartDescIdDesc(bookerId, now,
+                pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByItemOwnerIdOrderByStartDescIdDesc(ownerId, pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(ownerId,
+                BookingStatus.APPROVED, pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                ownerId, now, now, pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(ownerId, now,
+                pageRequest));
+        assertSingleStatement(() -> bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(ownerId,
+                now, pageRequest));
+        assertSingleStatement(() -> itemRepository.findByOwnerIdOrderByIdAsc(ownerId, PageRequest.of(0, 2)));
+        assertSingleStatement(() -> itemRepository.search("item", pageRequest));
+        assertSingleStatement(() -> itemRequestRepository.findByRequesterIdNotOrderByCreatedDescIdDesc(ownerId,
+                PageRequest.of(0, 5)));
+        assertSingleStatement(() -> itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(ownerId,
+                PageRequest.of(0, 5)));
+        assertSingleStatement(() -> userRepository.findAllByOrderByIdAsc(PageRequest.of(0, 5)));
+    }
+
+    @Test
+    void slicedQueriesHalveStatementsComparedToPagesTest() {
+        SqlStatementCounter.reset();
+        bookingRepository.findAll(pageRequest);
+        final int pageStatements = SqlStatementCounter.statements().size();
+
+        SqlStatementCounter.reset();
+        bookingRepository.findByBookerIdOrderByStartDescIdDesc(booker.getId(), pageRequest);
+        final int sliceStatements = SqlStatementCounter.statements().size();
+
+        assertEquals(2, pageStatements);
+        assertEquals(1, sliceStatements);
+    }
+
+    @Test
+    void ownerBookingsAreJoinedThroughItemOwnerTest() {
+        SqlStatementCounter.reset();
+        final Slice<BookingInfoDto> bookings = bookingRepository.findByItemOwnerIdOrderByStartDescIdDesc(owner.getId(),
+                PageRequest.of(0, ITEMS_PER_USER * BOOKINGS_PER_ITEM + 1));
+        final List<String> statements = SqlStatementCounter.statements();
+
+        assertEquals(ITEMS_PER_USER * BOOKINGS_PER_ITEM, bookings.getNumberOfElements());
+        assertTrue(bookings.stream().allMatch(booking -> ownerItemIds.contains(booking.getItem().getId())));
+        assertEquals(1, statements.size(), statements::toString);
+        assertTrue(statements.get(0).toLowerCase().contains("join items"), statements::toString);
+        assertFalse(statements.get(0).toLowerCase().contains(" in ("), statements::toString);
+    }
+
+    @Test
+    void sliceReportsNextPageWithoutCountTest() {
+        final Slice<BookingInfoDto> bookings = bookingRepository.findByBookerIdOrderByStartDescIdDesc(booker.getId(),
+                new MyPageRequest(0, 10, Sort.unsorted()));
+
+        assertEquals(10, bookings.getNumberOfElements());
+        assertTrue(bookings.hasNext());
+
+        final Slice<BookingInfoDto> last = bookingRepository.findByBookerIdOrderByStartDescIdDesc(booker.getId(),
+                new MyPageRequest(USERS * ITEMS_PER_USER * BOOKINGS_PER_ITEM / 2 - 5, 10, Sort.unsorted()));
+
+        assertEquals(5, last.getNumberOfElements());
+        assertFalse(last.hasNext());
+    }
+
+    private void assertSingleStatement(Supplier<Slice<?>> query) {
+        SqlStatementCounter.reset();
+        final Slice<?> slice = query.get();
+        final List<String> statements = SqlStatementCounter.statements();
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertFalse(statements.get(0).toLowerCase().contains("count("), statements::toString);
+        assertTrue(slice.getNumberOfElements() > 0);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DTO-проекции возвращают то же, что загрузка сущностей с преобразованием в DTO. Выделение памяти
+ * обоими способами сравнивает {@code ProjectionBenchmark} в модуле {@code benchmarks}.
+ */
+@DataJpaTest
+public class ProjectionQueryTest {
+    private static final int PAGE_SIZE = 20;
+
+    private static final String BOOKING_ORDER = "order by b.start desc, b.id desc";
+    private static final String SEARCH_FILTER = "where upper(i.name) like upper(concat('%', :text, '%')) " +
+            "and i.available = true order by i.id";
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    EntityManager entityManager;
+    User booker;
+
+    @BeforeEach
+    void beforeEach() {
+        entityManager = testEntityManager.getEntityManager();
+        final User owner = testEntityManager.persist(new User(null, "Owner", "owner@mail.com"));
+        booker = testEntityManager.persist(new User(null, "Booker", "booker@mail.com"));
+        final LocalDateTime now = LocalDateTime.of(2023, 1, 1, 12, 0);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            final Item item = testEntityManager.persist(new Item(null, "Item " + i, "Item description " + i,
+                    true, owner, null));
+            testEntityManager.persist(new Booking(null, now.plusDays(i), now.plusDays(i + 1), item, booker,
+                    BookingStatus.APPROVED));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void bookingProjectionMatchesEntitiesTest() {
+        final Supplier<List<BookingInfoDto>> entities = () -> entityManager
+                .createQuery("select b from Booking b join fetch b.item join fetch b.booker " +
+                        "where b.booker = :booker " + BOOKING_ORDER, Booking.class)
+                .setParameter("booker", booker)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList().stream()
+                .map(BookingMapper::toBookingInfoDto)
+                .collect(Collectors.toList());
+        final Supplier<List<BookingInfoDto>> projection = () -> entityManager
+                .createQuery(BookingRepository.BOOKING_INFO_QUERY +
+                        "where u = :booker " + BOOKING_ORDER, BookingInfoDto.class)
+                .setParameter("booker", booker)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+
+        assertEquals(PAGE_SIZE, projection.get().size());
+        assertEquals(entities.get(), projection.get());
+    }
+
+    @Test
+    void itemSearchProjectionMatchesEntitiesTest() {
+        final Supplier<List<ItemDto>> entities = () -> entityManager
+                .createQuery("select i from Item i " + SEARCH_FILTER, Item.class)
+                .setParameter("text", "item")
+                .setMaxResults(PAGE_SIZE)
+                .getResultList().stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+        final Supplier<List<ItemDto>> projection = () -> entityManager
+                .createQuery(ItemRepository.ITEM_DTO_QUERY + SEARCH_FILTER, ItemDto.class)
+                .setParameter("text", "item")
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+
+        assertEquals(PAGE_SIZE, projection.get().size());
+        assertEquals(entities.get(), projection.get());
+    }
+}
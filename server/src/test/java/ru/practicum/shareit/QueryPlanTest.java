@@ -0,0 +1,128 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+
+/**
+ * Планы запросов, которые репозитории выполняют на горячих путях, проверяются на PostgreSQL с индексами
+ * из миграций. Индексы секций {@code bookings} в плане заменяются именами индексов секционированной таблицы.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest extends PostgresTest {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+
+    final LocalDateTime now = LocalDateTime.now();
+    final PageRequest page = PageRequest.of(0, 10);
+
+    @BeforeAll
+    void beforeAll() {
+        jdbcTemplate.update("insert into users (id, name, email) " +
+                "select x, 'User ' || x, 'user' || x || '@mail.com' from generate_series(1, 100) x");
+        jdbcTemplate.update("insert into requests (id, description, requester_id, created) " +
+                "select x, 'Request ' || x, x % 100 + 1, localtimestamp - x * interval '1 minute' " +
+                "from generate_series(1, 1000) x");
+        jdbcTemplate.update("insert into items (id, name, description, available, owner_id, request_id) " +
+                "select x, 'Item ' || x, 'Description ' || x, true, x % 100 + 1, " +
+                "case when x % 2 = 0 then x % 1000 + 1 end from generate_series(1, 2000) x");
+        jdbcTemplate.update("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "select x, s, s + interval '1 hour', x % 2000 + 1, x % 100 + 1, " +
+                "case x % 3 when 0 then 'WAITING' when 1 then 'APPROVED' else 'REJECTED' end " +
+                "from generate_series(1, 20000) x, lateral (select localtimestamp " +
+                "+ (x % 200 - 100) * interval '1 day' + x / 2000 * interval '1 hour' as s) start");
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterAll
+    void afterAll() {
+        jdbcTemplate.update("delete from bookings");
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from requests");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueriesUseIndexesTest(String index, Runnable repositoryCall, Object[] parameters) {
+        String plan = QueryPlans.explain(jdbcTemplate, SqlStatementCounter.capture(repositoryCall), parameters);
+        for (Map<String, Object> partitionIndex : jdbcTemplate.queryForList("select c.relname as partition_index, " +
+                "p.relname as index from pg_class c cross join pg_partition_ancestors(c.oid) a " +
+                "join pg_class p on p.oid = a.relid where c.relkind = 'i' and c.relispartition " +
+                "and not p.relispartition")) {
+            plan = plan.replace((String) partitionIndex.get("partition_index"), (String) partitionIndex.get("index"));
+        }
+
+        assertThat(plan, containsStringIgnoringCase(index));
+    }
+
+    // Для будущих и прошедших бронирований планировщик выбирает между индексами по (booker_id, start_date)
+    // и (booker_id, end_date) в зависимости от статистики, поэтому проверяется только префикс.
+    private Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("ix_bookings_booker_start",
+                        (Runnable) () -> bookingRepository.findByBookerIdOrderByStartDescIdDesc(1L, page),
+                        new Object[]{1L, 11}),
+                Arguments.of("ix_bookings_booker_",
+                        (Runnable) () -> bookingRepository.findByBookerIdAndStartAfterOrderByStartDescIdDesc(1L,
+                                now, page),
+                        new Object[]{1L, now, now, 11}),
+                Arguments.of("ix_bookings_booker_start",
+                        (Runnable) () -> bookingRepository.findByBookerIdBefore(1L, now, 100L, page),
+                        new Object[]{1L, now, now, 100L, 10}),
+                Arguments.of("ix_bookings_booker_status_start",
+                        (Runnable) () -> bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(1L,
+                                BookingStatus.WAITING, page),
+                        new Object[]{1L, BookingStatus.WAITING.name(), 11}),
+                Arguments.of("ix_bookings_booker_",
+                        (Runnable) () -> bookingRepository.findByBookerIdAndEndBeforeOrderByStartDescIdDesc(1L,
+                                now, page),
+                        new Object[]{1L, now, 11}),
+                Arguments.of("ix_bookings_item_start",
+                        (Runnable) () -> bookingRepository.findLastBookingsByItemIds(List.of(1L, 2L, 3L), now),
+                        new Object[]{1L, 2L, 3L, now}),
+                Arguments.of("ix_items_owner",
+                        (Runnable) () -> itemRepository.findByOwnerIdOrderByIdAsc(1L, page),
+                        new Object[]{1L, 11}),
+                Arguments.of("ix_items_owner",
+                        (Runnable) () -> itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(1L, 100L, page),
+                        new Object[]{1L, 100L, 10}),
+                Arguments.of("ix_requests_requester_created",
+                        (Runnable) () -> itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(1L),
+                        new Object[]{1L}),
+                Arguments.of("ix_requests_created",
+                        (Runnable) () -> itemRequestRepository.findByRequesterIdNotOrderByCreatedDescIdDesc(1L, page),
+                        new Object[]{1L, 11}),
+                Arguments.of("ix_requests_created",
+                        (Runnable) () -> itemRequestRepository.findByRequesterIdNotBefore(1L, now, 100L, page),
+                        new Object[]{1L, now, now, 100L, 10})
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Планы запросов, которые Hibernate выводит для методов репозиториев: запрос перехватывается
+ * {@link SqlStatementCounter} во время вызова, и EXPLAIN выполняется для него же. Значения параметров
+ * передаются в порядке знаков {@code ?} в запросе; если запрос в репозитории изменится и число параметров
+ * разойдётся, проверка плана упадёт, а не останется проверять старый SQL.
+ */
+public final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    public static String explain(JdbcTemplate jdbcTemplate, String sql, Object... parameters) {
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(), sql);
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters));
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemServiceImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.UserServiceImpl;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.SqlStatementCounter")
+@Import({UserServiceImpl.class, ItemServiceImpl.class, ItemSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+    @Autowired
+    UserService userService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Cache cache;
+    UserDto owner;
+    ItemDto item;
+
+    @BeforeEach
+    void beforeEach() {
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        owner = userService.createUser(new UserDto(null, "Owner", "owner@mail.com"));
+        item = itemService.createItem(new ItemDto(null, "Item", "Item description", true, null), owner.getId());
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void statisticsAreDisabledByDefaultTest() {
+        assertFalse(entityManagerFactory.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled());
+    }
+
+    @Test
+    void findByIdIsServedFromCacheTest() {
+        userService.getUser(owner.getId());
+        itemRepository.findById(item.getId());
+
+        assertTrue(cache.containsEntity(User.class, owner.getId()));
+        assertTrue(cache.containsEntity(Item.class, item.getId()));
+
+        SqlStatementCounter.reset();
+        final UserDto user = userService.getUser(owner.getId());
+        final Item cachedItem = itemRepository.findById(item.getId()).orElseThrow();
+
+        assertEquals(owner, user);
+        assertEquals("Item", cachedItem.getName());
+        assertEquals(0, SqlStatementCounter.statements().size());
+    }
+
+    @Test
+    void updateUserRefreshesCacheTest() {
+        userService.updateUser(owner.getId(), new UserDto(null, "Updated", null));
+
+        SqlStatementCounter.reset();
+        final UserDto user = userService.getUser(owner.getId());
+
+        assertEquals("Updated", user.getName());
+        assertEquals("owner@mail.com", user.getEmail());
+        assertEquals(0, SqlStatementCounter.statements().size());
+    }
+
+    @Test
+    void updateItemRefreshesCacheTest() {
+        itemService.updateItem(item.getId(), new ItemDto(null, null, "Updated description", false, null),
+                owner.getId());
+
+        SqlStatementCounter.reset();
+        final Item updatedItem = itemRepository.findById(item.getId()).orElseThrow();
+
+        assertEquals("Item", updatedItem.getName());
+        assertEquals("Updated description", updatedItem.getDescription());
+        assertFalse(updatedItem.getAvailable());
+        assertEquals(0, SqlStatementCounter.statements().size());
+    }
+
+    @Test
+    void deleteItemEvictsCacheTest() {
+        itemRepository.findById(item.getId());
+        itemService.deleteItem(item.getId());
+
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+    }
+}
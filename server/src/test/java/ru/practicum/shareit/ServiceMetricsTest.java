@@ -0,0 +1,88 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Transactional
+@SpringBootTest(properties = "shareit.sql.statement-budget=1")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class ServiceMetricsTest {
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    UserRepository userRepository;
+
+    User user;
+
+    @BeforeEach
+    void beforeEach() {
+        user = userRepository.save(new User(null, "User", "user@metrics.com"));
+    }
+
+    @Test
+    void serviceTimerIsTaggedByStateEndpointAndOutcomeTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/owner?state=PAST")
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/items/" + Long.MAX_VALUE)
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isNotFound());
+
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tag("service", "BookingServiceImpl")
+                .tag("method", "getBookingsForOwner")
+                .tag("state", "PAST")
+                .tag("endpoint", "GET /bookings/owner")
+                .tag("outcome", "success")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tag("service", "ItemServiceImpl")
+                .tag("state", "none")
+                .tag("endpoint", "GET /items/{itemId}")
+                .tag("outcome", "NonExistentIdException")
+                .timer().count());
+    }
+
+    @Test
+    void statementsPerRequestAndBudgetTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/owner?state=ALL")
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get(SqlStatementBudgetFilter.STATEMENTS_METRIC)
+                .tag("method", "GET")
+                .tag("uri", "/bookings/owner")
+                .summary().totalAmount() >= 2);
+        assertTrue(meterRegistry.get(SqlStatementBudgetFilter.BUDGET_EXCEEDED_METRIC)
+                .tag("uri", "/bookings/owner")
+                .counter().count() >= 1);
+    }
+
+    @Test
+    void prometheusEndpointTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/users/" + user.getId()));
+
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("shareit_service_seconds_count")))
+                .andExpect(content().string(containsString("shareit_http_sql_statements_count")));
+    }
+}
@@ -31,6 +31,8 @@ import java.time.LocalDateTime;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -57,6 +59,7 @@ class ShareItTests {
 	private User bookerUser;
 	private Item availableItem;
 	private Item unavailableItem;
+	private Booking bookingInPast;
 	private Booking booking;
 	private final LocalDateTime newBookingStart =
 			LocalDateTime.of(2050, 1, 1, 12, 0, 0);
@@ -83,11 +86,11 @@ class ShareItTests {
 		availableItem = itemRepository.save(availableItem);
 		unavailableItem = itemRepository.save(unavailableItem);
 
-		Booking bookingInPast = new Booking(null,
+		bookingInPast = new Booking(null,
 				LocalDateTime.of(2020, 1, 1, 12, 0, 0),
 				LocalDateTime.of(2020, 1, 2, 12, 0, 0),
 				availableItem, bookerUser, BookingStatus.APPROVED);
-		bookingRepository.save(bookingInPast);
+		bookingInPast = bookingRepository.save(bookingInPast);
 
 		booking = new Booking(null, newBookingStart, newBookingEnd, availableItem, bookerUser,
 				BookingStatus.WAITING);
@@ -129,7 +132,13 @@ class ShareItTests {
 		mvc.perform(MockMvcRequestBuilders.get("/items")
 						.header("X-Sharer-User-Id", ownerUser.getId()))
 				.andExpect(status().isOk())
-				.andExpect(jsonPath("$", hasSize(2)));
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].id", is(availableItem.getId().intValue())))
+				.andExpect(jsonPath("$[0].lastBooking.id", is(bookingInPast.getId().intValue())))
+				.andExpect(jsonPath("$[0].nextBooking.id", is(booking.getId().intValue())))
+				.andExpect(jsonPath("$[1].id", is(unavailableItem.getId().intValue())))
+				.andExpect(jsonPath("$[1].lastBooking", nullValue()))
+				.andExpect(jsonPath("$[1].nextBooking", nullValue()));
 	}
 
 	@Test
@@ -207,5 +216,89 @@ class ShareItTests {
 						.accept(MediaType.APPLICATION_JSON))
 				.andExpect(status().isBadRequest());
 	}
-}
 
+	@Test
+	void getBookingsByCursorTest() throws Exception {
+		String cursor = mvc.perform(MockMvcRequestBuilders.get("/bookings?size=1")
+						.header("X-Sharer-User-Id", bookerUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(booking.getId().intValue())))
+				.andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+		cursor = mvc.perform(MockMvcRequestBuilders.get("/bookings?size=1&after=" + cursor)
+						.header("X-Sharer-User-Id", bookerUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(bookingInPast.getId().intValue())))
+				.andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+		mvc.perform(MockMvcRequestBuilders.get("/bookings?size=1&after=" + cursor)
+						.header("X-Sharer-User-Id", bookerUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(0)))
+				.andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+		mvc.perform(MockMvcRequestBuilders.get("/bookings/owner?state=FUTURE&size=1&after=" + cursor)
+						.header("X-Sharer-User-Id", ownerUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(0)));
+	}
+
+	@Test
+	void getAllItemsByCursorTest() throws Exception {
+		String cursor = mvc.perform(MockMvcRequestBuilders.get("/items?size=1")
+						.header("X-Sharer-User-Id", ownerUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id", is(availableItem.getId().intValue())))
+				.andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+		mvc.perform(MockMvcRequestBuilders.get("/items?size=1&after=" + cursor)
+						.header("X-Sharer-User-Id", ownerUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(unavailableItem.getId().intValue())));
+	}
+
+	@Test
+	void getAllItemRequestsByCursorTest() throws Exception {
+		String cursor = PageCursor.of(LocalDateTime.of(2030, 1, 1, 12, 0), Long.MAX_VALUE).encode();
+		mvc.perform(MockMvcRequestBuilders.get("/requests/all?size=1&after=" + cursor)
+						.header("X-Sharer-User-Id", ownerUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].items", hasSize(1)))
+				.andExpect(header().exists(PageCursor.NEXT_CURSOR_HEADER));
+	}
+
+	@Test
+	void getUserItemRequestsByCursorTest() throws Exception {
+		ItemRequest olderRequest = itemRequestRepository.save(new ItemRequest(null, "Older request", requesterUser,
+				LocalDateTime.of(2021, 1, 1, 12, 0, 0)));
+
+		mvc.perform(MockMvcRequestBuilders.get("/requests")
+						.header("X-Sharer-User-Id", requesterUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+		String cursor = mvc.perform(MockMvcRequestBuilders.get("/requests?size=1")
+						.header("X-Sharer-User-Id", requesterUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].items", hasSize(1)))
+				.andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+		mvc.perform(MockMvcRequestBuilders.get("/requests?size=1&after=" + cursor)
+						.header("X-Sharer-User-Id", requesterUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(olderRequest.getId().intValue())));
+
+		mvc.perform(MockMvcRequestBuilders.get("/requests?from=1&size=1")
+						.header("X-Sharer-User-Id", requesterUser.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(olderRequest.getId().intValue())));
+	}
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+
+    /**
+     * Выполняет вызов репозитория и возвращает единственный SQL-запрос, который при этом вывел Hibernate.
+     */
+    public static String capture(Runnable repositoryCall) {
+        reset();
+        repositoryCall.run();
+        final List<String> statements = statements();
+
+        assertEquals(1, statements.size(), statements::toString);
+        return statements.get(0);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Transactional
+@SpringBootTest(properties = "shareit.tracing.file=target/spans/tracing-test.jsonl")
+@AutoConfigureMockMvc
+public class TracingTest {
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    List<MutableSpan> spans;
+
+    User user;
+
+    @BeforeEach
+    void beforeEach() {
+        user = userRepository.save(new User(null, "User", "user@tracing.com"));
+        spans.clear();
+    }
+
+    @Test
+    void traceparentIsContinuedIntoRepositorySpansTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/users/" + user.getId())
+                        .header("traceparent", "00-" + TRACE_ID + "-" + PARENT_ID + "-01"))
+                .andExpect(status().isOk());
+
+        final List<MutableSpan> trace = spans.stream()
+                .filter(span -> TRACE_ID.equals(span.traceId()))
+                .collect(Collectors.toList());
+        final MutableSpan serverSpan = trace.stream()
+                .filter(span -> PARENT_ID.equals(span.parentId()))
+                .findFirst().orElseThrow();
+        final MutableSpan repositorySpan = trace.stream()
+                .filter(span -> "UserRepository.findById".equals(span.name()))
+                .findFirst().orElseThrow();
+
+        assertEquals("repository", repositorySpan.tag("component"));
+        assertNotEquals(serverSpan.id(), repositorySpan.id());
+        assertTrue(Files.readString(Path.of("target/spans/tracing-test.jsonl")).contains(TRACE_ID));
+    }
+
+    @TestConfiguration
+    static class SpanCollectorConfig {
+        @Bean
+        List<MutableSpan> spans() {
+            return new CopyOnWriteArrayList<>();
+        }
+
+        @Bean
+        SpanHandler collectingSpanHandler(List<MutableSpan> spans) {
+            return new SpanHandler() {
+                @Override
+                public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                    spans.add(span);
+                    return true;
+                }
+            };
+        }
+    }
+}
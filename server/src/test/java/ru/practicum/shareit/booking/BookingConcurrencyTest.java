@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-concurrency;LOCK_TIMEOUT=10000")
+public class BookingConcurrencyTest {
+    private static final int BOOKERS = 20;
+    private static final int BOOKINGS = 300;
+    private static final int THREADS = 16;
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    BookingService bookingService;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void parallelBookingsOfOneItemNeverOverlapTest() throws Exception {
+        assertParallelBookingsNeverOverlap(bookingService, "locked");
+    }
+
+    /**
+     * Без полосатых блокировок запросы к одной вещи доходят до базы одновременно, как на нескольких
+     * экземплярах сервера: пересечения исключают только блокировка строки вещи и проверка existsOverlapping.
+     */
+    @Test
+    void parallelBookingsOfOneItemNeverOverlapWithoutItemLocksTest() throws Exception {
+        final ItemLockManager noItemLocks = new ItemLockManager(new SimpleMeterRegistry(), 1, Duration.ZERO) {
+            @Override
+            public <T> T withLock(Long itemId, Supplier<T> action) {
+                return action.get();
+            }
+        };
+        assertParallelBookingsNeverOverlap(new BookingServiceImpl(bookingRepository, itemRepository,
+                userRepository, noItemLocks, transactionTemplate, 3), "unlocked");
+    }
+
+    private void assertParallelBookingsNeverOverlap(BookingService bookingService, String run) throws Exception {
+        final UserDto owner = userService.createUser(new UserDto(null, "Owner", "owner@" + run + ".com"));
+        final ItemDto item = itemService.createItem(new ItemDto(null, "Item", "Item description", true, null),
+                owner.getId());
+        final List<Long> bookerIds = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookerIds.add(userService.createUser(
+                    new UserDto(null, "Booker " + i, "booker" + i + "@" + run + ".com")).getId());
+        }
+
+        final LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        final Random random = new Random(42);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch startGate = new CountDownLatch(1);
+        final List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            final LocalDateTime start = base.plusHours(random.nextInt(24 * 30));
+            final LocalDateTime end = start.plusHours(1 + random.nextInt(72));
+            final Long bookerId = bookerIds.get(i % BOOKERS);
+            results.add(executor.submit(() -> {
+                startGate.await();
+                try {
+                    final BookingInfoDto booking = bookingService.createBooking(
+                            new BookingDto(null, start, end, item.getId(), null, null), bookerId);
+                    bookingService.approveBooking(owner.getId(), booking.getId(), true);
+                    return true;
+                } catch (BookingOverlapException e) {
+                    return false;
+                }
+            }));
+        }
+        startGate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        int approved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                approved++;
+            }
+        }
+
+        final List<Booking> approvedBookings = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .sorted(Comparator.comparing(Booking::getStart))
+                .collect(Collectors.toList());
+
+        assertEquals(approved, approvedBookings.size());
+        assertTrue(approved > 0);
+        assertTrue(approved < BOOKINGS);
+        for (int i = 1; i < approvedBookings.size(); i++) {
+            final Booking previous = approvedBookings.get(i - 1);
+            final Booking next = approvedBookings.get(i);
+            assertFalse(next.getStart().isBefore(previous.getEnd()),
+                    String.format("Booking %d overlaps booking %d", next.getId(), previous.getId()));
+        }
+    }
+}
@@ -6,13 +6,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.ResourceETag;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.exception.BookingOverlapException;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -23,6 +28,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = BookingController.class)
+@Import(ResourceETag.class)
 public class BookingControllerTest {
 
     @MockBean
@@ -31,6 +37,8 @@ public class BookingControllerTest {
     @Autowired
     private MockMvc mvc;
     @Autowired
+    private ResourceETag resourceETag;
+    @Autowired
     private ObjectMapper mapper;
 
     private final Long defaultBookingId = 1L;
@@ -77,6 +85,19 @@ public class BookingControllerTest {
         verify(bookingService, times(1)).createBooking(bookingDto, defaultUserId);
     }
 
+    @Test
+    void createOverlappingBookingTest() throws Exception {
+        when(bookingService.createBooking(any(), anyLong())).thenThrow(new BookingOverlapException("overlap"));
+
+        mvc.perform(MockMvcRequestBuilders.post("/bookings")
+                        .header("X-Sharer-User-Id", defaultUserId)
+                        .content(mapper.writeValueAsString(bookingDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void updateBookingTest() throws Exception {
         when(bookingService.approveBooking(anyLong(), anyLong(), anyBoolean())).thenReturn(bookingInfoDto);
@@ -126,6 +147,18 @@ public class BookingControllerTest {
         verify(bookingService, times(1)).getBooking(defaultUserId, defaultBookingId);
     }
 
+    @Test
+    void getBookingNotModifiedTest() throws Exception {
+        when(bookingService.getBooking(anyLong(), anyLong())).thenReturn(bookingInfoDto);
+
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/" + defaultBookingId)
+                        .header("X-Sharer-User-Id", defaultUserId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\", " + resourceETag.of(bookingInfoDto)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, resourceETag.of(bookingInfoDto)))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getBookingsTest() throws Exception {
         when(bookingService.getBookings(anyLong(), any(), any())).thenReturn(Collections.emptyList());
@@ -152,4 +185,29 @@ public class BookingControllerTest {
                 .getBookingsForOwner(defaultUserId, BookingState.ALL,
                         new MyPageRequest(0, 10, Sort.unsorted()));
     }
+
+    @Test
+    void getBookingsAfterCursorTest() throws Exception {
+        final PageCursor after = PageCursor.of(defaultEnd, 5L);
+        when(bookingService.getBookings(anyLong(), any(), any(), anyInt()))
+                .thenReturn(Collections.singletonList(bookingInfoDto));
+
+        mvc.perform(MockMvcRequestBuilders.get("/bookings?state=PAST&size=1&after=" + after.encode())
+                        .header("X-Sharer-User-Id", defaultUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(bookingInfoDto.getId()), Long.class))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(defaultStart, defaultBookingId).encode()));
+
+        verify(bookingService, times(1)).getBookings(defaultUserId, BookingState.PAST, after, 1);
+    }
+
+    @Test
+    void getBookingsForOwnerWithInvalidCursorTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/bookings/owner?after=not-a-cursor")
+                        .header("X-Sharer-User-Id", defaultUserId))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
 }
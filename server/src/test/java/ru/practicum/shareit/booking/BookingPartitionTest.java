@@ -0,0 +1,354 @@
+package ru.practicum.shareit.booking;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.PostgresTest;
+import ru.practicum.shareit.QueryPlans;
+import ru.practicum.shareit.SqlStatementCounter;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Миграции V1–V5 накатываются на отдельную базу, в неё пишутся бронирования, затем накатываются
+ * остальные миграции, включая секционирование V6.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingPartitionTest extends PostgresTest {
+    private static final String DATABASE = "bookings_partitions";
+    private static final Pattern PARTITION =
+            Pattern.compile("(?<!Bitmap Index) Scan (?:using \\S+ )?on (bookings_\\w+)");
+    private static final Pattern IMPLIED_PARTITION_CONSTRAINT =
+            Pattern.compile("partition constraint for (?:table|default partition) \"(\\w+)\" is implied");
+
+    @Autowired
+    DataSourceProperties dataSourceProperties;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    BookingRepository bookingRepository;
+
+    private JdbcTemplate database;
+    private LocalDateTime month;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate.execute("drop database if exists " + DATABASE);
+        jdbcTemplate.execute("create database " + DATABASE);
+        database = new JdbcTemplate(dataSource(DATABASE));
+        month = database.queryForObject("select date_trunc('month', localtimestamp)", LocalDateTime.class);
+        now = database.queryForObject("select localtimestamp", LocalDateTime.class);
+    }
+
+    @Test
+    void migrationDistributesExistingBookingsTest() {
+        migrate("5");
+        seedBookings();
+
+        migrate(null);
+
+        assertEquals(Map.of(
+                1L, "bookings_archive_legacy",
+                2L, "bookings_archive_legacy",
+                3L, partition(0),
+                4L, partition(1),
+                5L, partition(3),
+                6L, "bookings_default"), partitions());
+        assertEquals(Set.of("bookings_archive", partition(0), partition(1), partition(2), partition(3),
+                "bookings_default"), attachedPartitions());
+        assertEquals(Set.of("bookings_archive_legacy"), archivedPartitions());
+        assertEquals(7L, insertBooking(month.plusDays(1), month.plusDays(2), "WAITING"));
+    }
+
+    @Test
+    void maintenanceCreatesAndArchivesPartitionsAsTimeAdvancesTest() {
+        migrate("5");
+        seedBookings();
+        migrate(null);
+
+        assertEquals(4, createPartitions(month.plusMonths(4)));
+        assertEquals(1, archivePartitions(month.plusMonths(4)));
+        assertEquals(partition(6), partitions().get(6L));
+        assertEquals(Set.of("bookings_archive", partition(1), partition(2), partition(3), partition(4),
+                partition(5), partition(6), partition(7), "bookings_default"), attachedPartitions());
+
+        assertEquals(Set.of("bookings_archive_legacy", partition(0)), archivedPartitions());
+
+        assertEquals(4, createPartitions(month.plusMonths(10)));
+        assertEquals(6, archivePartitions(month.plusMonths(10)));
+        assertEquals(Map.of(
+                1L, "bookings_archive_legacy",
+                2L, "bookings_archive_legacy",
+                3L, partition(0),
+                4L, partition(1),
+                5L, partition(3),
+                6L, partition(6)), partitions());
+        assertEquals(Set.of("bookings_archive", partition(7), partition(10), partition(11), partition(12),
+                partition(13), "bookings_default"), attachedPartitions());
+        assertEquals(Set.of("bookings_archive_legacy", partition(0), partition(1), partition(2), partition(3),
+                partition(4), partition(5), partition(6)), archivedPartitions());
+        assertEquals(7L, insertBooking(month.plusMonths(10), month.plusMonths(10).plusDays(1), "WAITING"));
+        assertEquals(partition(10), partitions().get(7L));
+
+        assertEquals(0, createPartitions(month.plusMonths(10)));
+        assertEquals(0, archivePartitions(month.plusMonths(10)));
+
+        assertEquals(8L, insertBooking(month.plusMonths(8), month.plusMonths(8).plusDays(1), "WAITING"));
+        assertEquals("bookings_default", partitions().get(8L));
+        assertEquals(4, archivePartitions(month.plusMonths(14)));
+        assertEquals(partition(8), partitions().get(8L));
+        assertEquals(partition(10), partitions().get(7L));
+        assertTrue(archivedPartitions().containsAll(Set.of(partition(7), partition(8), partition(9),
+                partition(10))));
+    }
+
+    @Test
+    void archivingAttachesPartitionsWithoutScanningTheirRowsTest() {
+        migrate("5");
+        seedBookings();
+        migrate(null);
+        assertEquals(4, createPartitions(month.plusMonths(4)));
+
+        final Set<String> notScanned = database.execute((ConnectionCallback<Set<String>>) connection -> {
+            try (Statement settings = connection.createStatement();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "select bookings_archive_partitions(3, ?)")) {
+                settings.execute("set client_min_messages = debug1");
+                statement.setObject(1, month.plusMonths(5));
+                statement.execute();
+                final Set<String> tables = new TreeSet<>();
+                for (SQLWarning warning = statement.getWarnings(); warning != null;
+                     warning = warning.getNextWarning()) {
+                    final Matcher matcher = IMPLIED_PARTITION_CONSTRAINT.matcher(warning.getMessage());
+                    if (matcher.find()) {
+                        tables.add(matcher.group(1));
+                    }
+                }
+                return tables;
+            }
+        });
+
+        assertEquals(Set.of("bookings_archive_legacy", partition(0), partition(1), "bookings_default"), notScanned);
+        assertEquals(Set.of("bookings_archive_legacy", partition(0), partition(1)), archivedPartitions());
+        assertEquals(partition(1), partitions().get(4L));
+    }
+
+    @Test
+    void maintenanceRunsOnlyWhileNoOtherInstanceHoldsTheLockTest() {
+        migrate("5");
+        seedBookings();
+        migrate(null);
+        final BookingPartitionMaintenance maintenance = new BookingPartitionMaintenance(database, 3, 3);
+
+        assertTrue(maintenance.maintain(month.plusMonths(4)));
+        assertEquals(partition(6), partitions().get(6L));
+        final Set<String> maintained = Set.of("bookings_archive", partition(1), partition(2), partition(3),
+                partition(4), partition(5), partition(6), partition(7), "bookings_default");
+        assertEquals(maintained, attachedPartitions());
+        assertEquals(0, defaultCheckConstraints());
+
+        final SingleConnectionDataSource otherInstance = new SingleConnectionDataSource(url(DATABASE),
+                dataSourceProperties.getUsername(), dataSourceProperties.getPassword(), true);
+        try {
+            assertEquals(Boolean.TRUE, new JdbcTemplate(otherInstance).queryForObject(
+                    "select pg_try_advisory_lock(?, ?)", Boolean.class,
+                    BookingPartitionMaintenance.LOCK_CLASS_ID, BookingPartitionMaintenance.LOCK_OBJECT_ID));
+
+            assertFalse(maintenance.maintain(month.plusMonths(10)));
+            assertEquals(maintained, attachedPartitions());
+        } finally {
+            otherInstance.destroy();
+        }
+
+        assertTrue(maintenance.maintain(month.plusMonths(10)));
+        assertTrue(archivedPartitions().contains(partitions().get(6L)));
+        assertEquals(Set.of("bookings_archive", partition(7), partition(10), partition(11), partition(12),
+                partition(13), "bookings_default"), attachedPartitions());
+        assertEquals(0, defaultCheckConstraints());
+    }
+
+    @Test
+    void archivingDropsBoundChecksLeftByAnInterruptedRunTest() {
+        migrate(null);
+        seedUsersAndItem();
+        insertBooking(month.plusMonths(1).plusDays(1), month.plusMonths(1).plusDays(10), "APPROVED");
+        assertEquals("ck_bookings_default_from_" + month.plusMonths(1).format(DateTimeFormatter.BASIC_ISO_DATE),
+                database.queryForObject("select bookings_archive_prepare_bound(3, ?)", String.class,
+                        month.plusMonths(4)));
+        assertEquals(1, defaultCheckConstraints());
+
+        assertEquals(2, archivePartitions(month.plusMonths(5)));
+        assertEquals(Set.of("bookings_archive_legacy", partition(0), partition(1)), archivedPartitions());
+        assertEquals(partition(1), partitions().get(1L));
+        assertEquals(0, defaultCheckConstraints());
+    }
+
+    @Test
+    void bookingQueriesPruneArchiveOrRecentPartitionsTest() {
+        migrate(null);
+        final Set<String> all = leafPartitions();
+        final Set<String> notArchived = new TreeSet<>(all);
+        notArchived.removeAll(archivedPartitions());
+
+        final PageRequest page = PageRequest.of(0, 10);
+
+        assertEquals(all, scannedPartitions(() -> bookingRepository
+                .findByBookerIdOrderByStartDescIdDesc(2L, page), 2L, 11));
+        assertEquals(all, scannedPartitions(() -> bookingRepository
+                .findByBookerIdAndStatusOrderByStartDescIdDesc(2L, BookingStatus.WAITING, page), 2L, "WAITING", 11));
+        assertEquals(all, scannedPartitions(() -> bookingRepository
+                .findByBookerIdAndStatusOrderByStartDescIdDesc(2L, BookingStatus.REJECTED, page), 2L, "REJECTED", 11));
+        assertEquals(notArchived, scannedPartitions(() -> bookingRepository
+                .findByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(2L, now, now, page), 2L, now, now, 11));
+        assertEquals(Set.of("bookings_archive_legacy", partition(0)), scannedPartitions(() -> bookingRepository
+                .findByBookerIdAndEndBeforeOrderByStartDescIdDesc(2L, now, page), 2L, now, 11));
+        assertEquals(notArchived, scannedPartitions(() -> bookingRepository
+                .findByBookerIdAndStartAfterOrderByStartDescIdDesc(2L, now, page), 2L, now, now, 11));
+    }
+
+    @Test
+    void approvedBookingsMustNotOverlapAcrossPartitionsTest() {
+        migrate(null);
+        seedUsersAndItem();
+        insertBooking(month.minusDays(5), month.minusDays(1), "APPROVED");
+        final long waiting = insertBooking(month.minusDays(3), month.plusDays(5), "WAITING");
+
+        assertExclusionViolation(() -> insertBooking(month.minusDays(2), month.plusMonths(1), "APPROVED"));
+        assertExclusionViolation(() -> database.update("update bookings set status = 'APPROVED' where id = ?",
+                waiting));
+
+        final long approved = insertBooking(month.minusDays(1), month.plusDays(5), "APPROVED");
+        assertExclusionViolation(() -> database.update("update bookings set start_date = ? where id = ?",
+                month.minusDays(2), approved));
+        assertEquals(2, database.queryForObject("select count(*) from bookings where status = 'APPROVED'",
+                Integer.class));
+    }
+
+    private void seedUsersAndItem() {
+        database.update("insert into users (id, name, email) values (1, 'Владелец', 'owner@mail.com'), " +
+                "(2, 'Арендатор', 'booker@mail.com')");
+        database.update("insert into items (id, name, description, available, owner_id) " +
+                "values (1, 'Дрель', 'Простая дрель', true, 1)");
+    }
+
+    private void seedBookings() {
+        seedUsersAndItem();
+        insertBooking(month.minusYears(1), month.minusYears(1).plusDays(1), "APPROVED");
+        insertBooking(month.minusMonths(1), month.minusMonths(1).plusDays(10), "APPROVED");
+        insertBooking(month.plusDays(1), month.plusDays(10), "WAITING");
+        insertBooking(month.plusDays(20), month.plusMonths(1).plusDays(10), "APPROVED");
+        insertBooking(month.plusMonths(3), month.plusMonths(3).plusDays(10), "REJECTED");
+        insertBooking(month.plusMonths(6), month.plusMonths(6).plusDays(10), "APPROVED");
+    }
+
+    private long insertBooking(LocalDateTime start, LocalDateTime end, String status) {
+        return database.queryForObject("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, 1, 2, ?) returning id", Long.class, start, end, status);
+    }
+
+    private int createPartitions(LocalDateTime asOf) {
+        return database.queryForObject("select bookings_create_partitions(3, ?)", Integer.class, asOf);
+    }
+
+    private int archivePartitions(LocalDateTime asOf) {
+        return database.queryForObject("select bookings_archive_partitions(3, ?)", Integer.class, asOf);
+    }
+
+    private int defaultCheckConstraints() {
+        return database.queryForObject("select count(*) from pg_constraint " +
+                "where conrelid = 'bookings_default'::regclass and contype = 'c'", Integer.class);
+    }
+
+    private Map<Long, String> partitions() {
+        return database.queryForList("select id, tableoid::regclass::text as partition from bookings").stream()
+                .collect(Collectors.toMap(row -> ((Number) row.get("id")).longValue(),
+                        row -> (String) row.get("partition")));
+    }
+
+    private Set<String> attachedPartitions() {
+        return childPartitions("bookings");
+    }
+
+    private Set<String> archivedPartitions() {
+        return childPartitions("bookings_archive");
+    }
+
+    private Set<String> childPartitions(String table) {
+        return new TreeSet<>(database.queryForList("select inhrelid::regclass::text from pg_inherits " +
+                "where inhparent = ?::regclass", String.class, table));
+    }
+
+    private Set<String> leafPartitions() {
+        return new TreeSet<>(database.queryForList("select relid::regclass::text " +
+                "from pg_partition_tree('bookings') where isleaf", String.class));
+    }
+
+    /**
+     * Секции, которые просматривает запрос репозитория: SQL перехватывается при вызове на основной базе,
+     * а план строится в базе теста с параметрами {@code parameters}.
+     */
+    private Set<String> scannedPartitions(Runnable repositoryCall, Object... parameters) {
+        final String plan = QueryPlans.explain(database, SqlStatementCounter.capture(repositoryCall), parameters);
+        final Set<String> scanned = new TreeSet<>();
+        final Matcher matcher = PARTITION.matcher(plan);
+        while (matcher.find()) {
+            scanned.add(matcher.group(1));
+        }
+        return scanned;
+    }
+
+    private String partition(int monthsAhead) {
+        return "bookings_p" + month.plusMonths(monthsAhead).format(DateTimeFormatter.ofPattern("yyyyMM"));
+    }
+
+    private void assertExclusionViolation(Runnable statement) {
+        final DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                statement::run);
+        assertEquals("23P01", ((SQLException) e.getMostSpecificCause()).getSQLState());
+    }
+
+    private void migrate(String target) {
+        Flyway.configure()
+                .dataSource(dataSource(DATABASE))
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .target((target != null) ? target : "latest")
+                .load()
+                .migrate();
+    }
+
+    private DataSource dataSource(String name) {
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource(url(name),
+                dataSourceProperties.getUsername(), dataSourceProperties.getPassword());
+        dataSource.setDriverClassName(dataSourceProperties.getDriverClassName());
+        return dataSource;
+    }
+
+    private String url(String database) {
+        return dataSourceProperties.getUrl().replaceFirst("/[^/?]+(\\?|$)", "/" + database + "$1");
+    }
+}
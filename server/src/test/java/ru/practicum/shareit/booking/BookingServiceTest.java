@@ -1,18 +1,27 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.exception.ApprovedStatusDeniedToChangeException;
 import ru.practicum.shareit.exception.BookingItemByOwnerException;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.exception.ConcurrentBookingUpdateException;
+import ru.practicum.shareit.exception.InvalidPageCursorException;
 import ru.practicum.shareit.exception.NonAvailableItemException;
 import ru.practicum.shareit.exception.NonExistentIdException;
 import ru.practicum.shareit.item.ItemRepository;
@@ -20,6 +29,8 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -35,6 +46,7 @@ public class BookingServiceTest {
     private ItemRepository itemRepository;
     private UserRepository userRepository;
     private BookingRepository bookingRepository;
+    private PlatformTransactionManager transactionManager;
     private Item item;
     private User owner;
     private User booker;
@@ -50,9 +62,14 @@ public class BookingServiceTest {
     void beforeEach() {
         itemRepository = mock(ItemRepository.class);
         userRepository = mock(UserRepository.class);
+        doCallRealMethod().when(userRepository).checkExists(any());
+        when(userRepository.getExistingReference(any())).thenCallRealMethod();
         bookingRepository = mock(BookingRepository.class);
 
-        bookingService = new BookingServiceImpl(bookingRepository, itemRepository, userRepository);
+        transactionManager = mock(PlatformTransactionManager.class);
+        bookingService = new BookingServiceImpl(bookingRepository, itemRepository, userRepository,
+                new ItemLockManager(new SimpleMeterRegistry(), 4, Duration.ofSeconds(1)),
+                new TransactionTemplate(transactionManager), 3);
 
         final Long defaultOwnerId = 1L;
         final Long defaultBookerId = 2L;
@@ -67,6 +84,8 @@ public class BookingServiceTest {
 
         booking = new Booking(defaultBookingId, defaultStart, defaultEnd, item, booker, defaultBookingStatus);
         bookingDto = BookingMapper.toBookingDto(booking);
+
+        when(bookingRepository.findItemIdById(defaultBookingId)).thenReturn(Optional.of(defaultItemId));
     }
 
     @Test
@@ -81,6 +100,7 @@ public class BookingServiceTest {
 
         verify(userRepository, times(1)).findById(booker.getId());
         verify(itemRepository, times(1)).findById(booking.getItem().getId());
+        verify(itemRepository, times(1)).findLockedById(booking.getItem().getId());
         verify(bookingRepository, times(1)).save(booking);
     }
 
@@ -135,6 +155,21 @@ public class BookingServiceTest {
         assertTrue(exception.getMessage().contains("Не найдена вещь с id " + bookingDto.getItemId()));
     }
 
+    @Test
+    void operationBookingOverlappingApprovedTest() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsOverlapping(anyLong(), any(), any(), any())).thenReturn(true);
+
+        assertThrows(BookingOverlapException.class,
+                () -> bookingService.createBooking(bookingDto, booker.getId()));
+
+        verify(itemRepository, times(1)).findLockedById(item.getId());
+        verify(bookingRepository, times(1))
+                .existsOverlapping(item.getId(), BookingStatus.APPROVED, bookingDto.getStart(), bookingDto.getEnd());
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void approveBookingTest() {
         Booking approvedBooking = new Booking(booking.getId(), booking.getStart(), booking.getEnd(), booking.getItem(),
@@ -151,6 +186,82 @@ public class BookingServiceTest {
         verify(bookingRepository, times(1)).save(approvedBooking);
     }
 
+    @Test
+    void approveBookingRetriesOnOptimisticLockFailureTest() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any()))
+                .thenThrow(new OptimisticLockingFailureException("stale booking"))
+                .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+
+        final BookingInfoDto bookingInfoDtoResult = bookingService.approveBooking(owner.getId(), booking.getId(),
+                false);
+
+        assertEquals(BookingStatus.REJECTED, bookingInfoDtoResult.getStatus());
+        verify(bookingRepository, times(2)).findById(booking.getId());
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void approveBookingGivesUpAfterMaxAttemptsTest() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any())).thenThrow(new OptimisticLockingFailureException("stale booking"));
+
+        assertThrows(ConcurrentBookingUpdateException.class,
+                () -> bookingService.approveBooking(owner.getId(), booking.getId(), false));
+
+        verify(bookingRepository, times(3)).save(any());
+    }
+
+    @Test
+    void operationApprovingOverlappingBookingTest() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.existsOverlapping(anyLong(), any(), any(), any())).thenReturn(true);
+
+        assertThrows(BookingOverlapException.class,
+                () -> bookingService.approveBooking(owner.getId(), booking.getId(), true));
+
+        verify(itemRepository, times(1)).findLockedById(item.getId());
+        verify(bookingRepository, never()).save(any());
+        assertEquals(defaultBookingStatus, booking.getStatus());
+    }
+
+    @Test
+    void approvingBookingTranslatesExclusionViolationTest() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any())).thenThrow(new DataIntegrityViolationException("could not execute",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThrows(BookingOverlapException.class,
+                () -> bookingService.approveBooking(owner.getId(), booking.getId(), true));
+
+        verify(bookingRepository, times(1)).save(any());
+    }
+
+    @Test
+    void approvingBookingPropagatesOtherIntegrityViolationsTest() {
+        final DataIntegrityViolationException violation = new DataIntegrityViolationException("could not execute",
+                new SQLException("null value in column \"item_id\" violates not-null constraint", "23502"));
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any())).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.approveBooking(owner.getId(), booking.getId(), true)));
+    }
+
+    @Test
+    void rejectingBookingSkipsOverlapCheckTest() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+
+        final BookingInfoDto bookingInfoDtoResult = bookingService.approveBooking(owner.getId(), booking.getId(),
+                false);
+
+        assertEquals(BookingStatus.REJECTED, bookingInfoDtoResult.getStatus());
+        verify(itemRepository, never()).findLockedById(anyLong());
+        verify(bookingRepository, never()).existsOverlapping(anyLong(), any(), any(), any());
+    }
+
     @Test
     void operationBookingForApproveNotFoundTest() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -229,18 +340,20 @@ public class BookingServiceTest {
     @MethodSource("bookingStateValues")
     void getBookingsTest(BookingState state) {
         final PageRequest pageRequest = new MyPageRequest(0, 10, Sort.unsorted());
-        final Page<Booking> bookings = new PageImpl<>(Collections.singletonList(booking));
+        final Slice<BookingInfoDto> bookings =
+                new SliceImpl<>(Collections.singletonList(BookingMapper.toBookingInfoDto(booking)));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerAndStatusOrderByStartDesc(any(), any(), any()))
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(any(), any(), any()))
                 .thenReturn(bookings);
-        when(bookingRepository.findByBookerAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any()))
+        when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                any(), any(), any(), any()))
                 .thenReturn(bookings);
-        when(bookingRepository.findByBookerAndEndBeforeOrderByStartDesc(any(), any(), any()))
+        when(bookingRepository.findByBookerIdAndEndBeforeOrderByStartDescIdDesc(any(), any(), any()))
                 .thenReturn(bookings);
-        when(bookingRepository.findByBookerAndStartAfterOrderByStartDesc(any(), any(), any()))
+        when(bookingRepository.findByBookerIdAndStartAfterOrderByStartDescIdDesc(any(), any(), any()))
                 .thenReturn(bookings);
-        when(bookingRepository.findByBookerOrderByStartDesc(any(), any()))
+        when(bookingRepository.findByBookerIdOrderByStartDescIdDesc(any(), any()))
                 .thenReturn(bookings);
 
         final List<BookingInfoDto> bookingInfoDtos
@@ -250,34 +363,34 @@ public class BookingServiceTest {
         assertEquals(1, bookingInfoDtos.size());
         assertEquals(BookingMapper.toBookingInfoDto(booking), bookingInfoDtos.get(0));
 
-        verify(userRepository, times(1)).findById(booking.getBooker().getId());
+        verify(userRepository, times(1)).existsById(booking.getBooker().getId());
 
         switch (state) {
             case WAITING:
                 verify(bookingRepository, times(1))
-                        .findByBookerAndStatusOrderByStartDesc(
-                                booking.getBooker(), BookingStatus.WAITING, pageRequest);
+                        .findByBookerIdAndStatusOrderByStartDescIdDesc(
+                                booking.getBooker().getId(), BookingStatus.WAITING, pageRequest);
                 break;
             case REJECTED:
                 verify(bookingRepository, times(1))
-                        .findByBookerAndStatusOrderByStartDesc(
-                                booking.getBooker(), BookingStatus.REJECTED, pageRequest);
+                        .findByBookerIdAndStatusOrderByStartDescIdDesc(
+                                booking.getBooker().getId(), BookingStatus.REJECTED, pageRequest);
                 break;
             case CURRENT:
                 verify(bookingRepository, times(1))
-                        .findByBookerAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any());
+                        .findByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(any(), any(), any(), any());
                 break;
             case PAST:
                 verify(bookingRepository, times(1))
-                        .findByBookerAndEndBeforeOrderByStartDesc(any(), any(), any());
+                        .findByBookerIdAndEndBeforeOrderByStartDescIdDesc(any(), any(), any());
                 break;
             case FUTURE:
                 verify(bookingRepository, times(1))
-                        .findByBookerAndStartAfterOrderByStartDesc(any(), any(), any());
+                        .findByBookerIdAndStartAfterOrderByStartDescIdDesc(any(), any(), any());
                 break;
             default:
                 verify(bookingRepository, times(1))
-                        .findByBookerOrderByStartDesc(booking.getBooker(), pageRequest);
+                        .findByBookerIdOrderByStartDescIdDesc(booking.getBooker().getId(), pageRequest);
                 break;
         }
     }
@@ -286,22 +399,21 @@ public class BookingServiceTest {
     @MethodSource("bookingStateValues")
     void getBookingsForOwnerTest(BookingState state) {
         final PageRequest pageRequest = new MyPageRequest(0, 10, Sort.unsorted());
-        final Page<Booking> bookings = new PageImpl<>(Collections.singletonList(booking));
+        final Slice<BookingInfoDto> bookings =
+                new SliceImpl<>(Collections.singletonList(BookingMapper.toBookingInfoDto(booking)));
 
-        List<Item> items = Collections.singletonList(item);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-        when(itemRepository.findByOwnerOrderByIdAsc(any())).thenReturn(items);
-
-        when(bookingRepository.findByItemInAndStatusOrderByStartDesc(any(), any(), any()))
+        when(bookingRepository.findByItemOwnerIdAndStatusOrderByStartDescIdDesc(any(), any(), any()))
                 .thenReturn(bookings);
-        when(bookingRepository.findByItemInAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any()))
+        when(bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                any(), any(), any(), any()))
                 .thenReturn(bookings);
-        when(bookingRepository.findByItemInAndEndBeforeOrderByStartDesc(any(), any(), any()))
+        when(bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(any(), any(), any()))
                 .thenReturn(bookings);
-        when(bookingRepository.findByItemInAndStartAfterOrderByStartDesc(any(), any(), any()))
+        when(bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(any(), any(), any()))
                 .thenReturn(bookings);
-        when(bookingRepository.findByItemInOrderByStartDesc(any(), any()))
+        when(bookingRepository.findByItemOwnerIdOrderByStartDescIdDesc(any(), any()))
                 .thenReturn(bookings);
 
         final List<BookingInfoDto> bookingInfoDtos
@@ -311,39 +423,140 @@ public class BookingServiceTest {
         assertEquals(1, bookingInfoDtos.size());
         assertEquals(BookingMapper.toBookingInfoDto(booking), bookingInfoDtos.get(0));
 
-        verify(userRepository, times(1)).findById(owner.getId());
-        verify(itemRepository, times(1)).findByOwnerOrderByIdAsc(owner);
+        verify(userRepository, times(1)).existsById(owner.getId());
+        verifyNoInteractions(itemRepository);
 
         switch (state) {
             case WAITING:
                 verify(bookingRepository, times(1))
-                        .findByItemInAndStatusOrderByStartDesc(
-                                items, BookingStatus.WAITING, pageRequest);
+                        .findByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                                owner.getId(), BookingStatus.WAITING, pageRequest);
+                break;
+            case REJECTED:
+                verify(bookingRepository, times(1))
+                        .findByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                                owner.getId(), BookingStatus.REJECTED, pageRequest);
+                break;
+            case CURRENT:
+                verify(bookingRepository, times(1))
+                        .findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(any(), any(), any(), any());
                 break;
+            case PAST:
+                verify(bookingRepository, times(1))
+                        .findByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(any(), any(), any());
+                break;
+            case FUTURE:
+                verify(bookingRepository, times(1))
+                        .findByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(any(), any(), any());
+                break;
+            default:
+                verify(bookingRepository, times(1))
+                        .findByItemOwnerIdOrderByStartDescIdDesc(owner.getId(), pageRequest);
+                break;
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("bookingStateValues")
+    void getBookingsAfterCursorTest(BookingState state) {
+        final PageCursor after = PageCursor.of(defaultEnd, 10L);
+        final List<BookingInfoDto> bookings = Collections.singletonList(BookingMapper.toBookingInfoDto(booking));
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findByBookerIdAndStatusBefore(any(), any(), any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findCurrentByBookerIdBefore(any(), any(), any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findPastByBookerIdBefore(any(), any(), any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findFutureByBookerIdBefore(any(), any(), any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findByBookerIdBefore(any(), any(), any(), any())).thenReturn(bookings);
+
+        final List<BookingInfoDto> bookingInfoDtos = bookingService.getBookings(booker.getId(), state, after, 5);
+
+        assertEquals(List.of(BookingMapper.toBookingInfoDto(booking)), bookingInfoDtos);
+
+        final PageRequest pageRequest = PageRequest.of(0, 5);
+        switch (state) {
+            case WAITING:
             case REJECTED:
+                verify(bookingRepository, times(1)).findByBookerIdAndStatusBefore(booker.getId(),
+                        BookingStatus.valueOf(state.name()), defaultEnd, 10L, pageRequest);
+                break;
+            case CURRENT:
                 verify(bookingRepository, times(1))
-                        .findByItemInAndStatusOrderByStartDesc(
-                                items, BookingStatus.REJECTED, pageRequest);
+                        .findCurrentByBookerIdBefore(eq(booker.getId()), any(), eq(defaultEnd), eq(10L),
+                                eq(pageRequest));
+                break;
+            case PAST:
+                verify(bookingRepository, times(1))
+                        .findPastByBookerIdBefore(eq(booker.getId()), any(), eq(defaultEnd), eq(10L),
+                                eq(pageRequest));
+                break;
+            case FUTURE:
+                verify(bookingRepository, times(1))
+                        .findFutureByBookerIdBefore(eq(booker.getId()), any(), eq(defaultEnd), eq(10L),
+                                eq(pageRequest));
+                break;
+            default:
+                verify(bookingRepository, times(1))
+                        .findByBookerIdBefore(booker.getId(), defaultEnd, 10L, pageRequest);
+                break;
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("bookingStateValues")
+    void getBookingsForOwnerAfterCursorTest(BookingState state) {
+        final PageCursor after = PageCursor.of(defaultEnd, 10L);
+        final List<BookingInfoDto> bookings = Collections.singletonList(BookingMapper.toBookingInfoDto(booking));
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findByItemOwnerIdAndStatusBefore(any(), any(), any(), any(), any()))
+                .thenReturn(bookings);
+        when(bookingRepository.findCurrentByItemOwnerIdBefore(any(), any(), any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findPastByItemOwnerIdBefore(any(), any(), any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findFutureByItemOwnerIdBefore(any(), any(), any(), any(), any())).thenReturn(bookings);
+        when(bookingRepository.findByItemOwnerIdBefore(any(), any(), any(), any())).thenReturn(bookings);
+
+        final List<BookingInfoDto> bookingInfoDtos = bookingService.getBookingsForOwner(owner.getId(), state, after, 5);
+
+        assertEquals(List.of(BookingMapper.toBookingInfoDto(booking)), bookingInfoDtos);
+
+        final PageRequest pageRequest = PageRequest.of(0, 5);
+        switch (state) {
+            case WAITING:
+            case REJECTED:
+                verify(bookingRepository, times(1)).findByItemOwnerIdAndStatusBefore(owner.getId(),
+                        BookingStatus.valueOf(state.name()), defaultEnd, 10L, pageRequest);
                 break;
             case CURRENT:
                 verify(bookingRepository, times(1))
-                        .findByItemInAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any());
+                        .findCurrentByItemOwnerIdBefore(eq(owner.getId()), any(), eq(defaultEnd), eq(10L),
+                                eq(pageRequest));
                 break;
             case PAST:
                 verify(bookingRepository, times(1))
-                        .findByItemInAndEndBeforeOrderByStartDesc(any(), any(), any());
+                        .findPastByItemOwnerIdBefore(eq(owner.getId()), any(), eq(defaultEnd), eq(10L),
+                                eq(pageRequest));
                 break;
             case FUTURE:
                 verify(bookingRepository, times(1))
-                        .findByItemInAndStartAfterOrderByStartDesc(any(), any(), any());
+                        .findFutureByItemOwnerIdBefore(eq(owner.getId()), any(), eq(defaultEnd), eq(10L),
+                                eq(pageRequest));
                 break;
             default:
                 verify(bookingRepository, times(1))
-                        .findByItemInOrderByStartDesc(items, pageRequest);
+                        .findByItemOwnerIdBefore(owner.getId(), defaultEnd, 10L, pageRequest);
                 break;
         }
     }
 
+    @Test
+    void getBookingsAfterCursorWithoutPositionTest() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        assertThrows(InvalidPageCursorException.class,
+                () -> bookingService.getBookings(booker.getId(), BookingState.ALL, PageCursor.of(10L), 5));
+    }
+
     private static Stream<BookingState> bookingStateValues() {
         return Stream.of(BookingState.values());
     }
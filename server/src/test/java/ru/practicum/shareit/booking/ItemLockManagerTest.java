@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ConcurrentBookingUpdateException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemLockManagerTest {
+    private static final int STRIPES = 4;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemLockManager itemLockManager;
+    private ExecutorService executor;
+    private CountDownLatch locked;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void beforeEach() throws InterruptedException {
+        meterRegistry = new SimpleMeterRegistry();
+        itemLockManager = new ItemLockManager(meterRegistry, STRIPES, Duration.ofMillis(100));
+        executor = Executors.newSingleThreadExecutor();
+        locked = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        executor.submit(() -> itemLockManager.withLock(1L, () -> {
+            locked.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void afterEach() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void itemsOnOtherStripesAreNotBlockedTest() {
+        assertEquals("done", itemLockManager.withLock(2L, () -> "done"));
+        assertEquals(2, meterRegistry.get("shareit.booking.item.lock.wait").timer().count());
+    }
+
+    @Test
+    void sameStripeWaitsAndTimesOutTest() {
+        assertThrows(ConcurrentBookingUpdateException.class,
+                () -> itemLockManager.withLock(1L + STRIPES, () -> "done"));
+        assertTrue(meterRegistry.get("shareit.booking.item.lock.wait").timer()
+                .max(TimeUnit.MILLISECONDS) >= 100);
+    }
+}
@@ -5,11 +5,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.util.DigestUtils;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.ResourceETag;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -17,10 +22,12 @@ import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(ResourceETag.class)
 public class ItemControllerTest {
 
     @MockBean
@@ -28,6 +35,8 @@ public class ItemControllerTest {
 
     @Autowired
     private MockMvc mvc;
+    @Autowired
+    private ResourceETag resourceETag;
 
     @Autowired
     private ObjectMapper mapper;
@@ -129,6 +138,46 @@ public class ItemControllerTest {
         verify(itemService, times(1)).getItem(defaultItemId, defaultUserId);
     }
 
+    @Test
+    void getItemNotModifiedTest() throws Exception {
+        when(itemService.getItem(anyLong(), anyLong())).thenReturn(itemInfoDto);
+        final String eTag = resourceETag.of(itemInfoDto);
+
+        mvc.perform(MockMvcRequestBuilders.get("/items/" + defaultItemId)
+                        .header("X-Sharer-User-Id", defaultUserId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        mvc.perform(MockMvcRequestBuilders.get("/items/" + defaultItemId)
+                        .header("X-Sharer-User-Id", defaultUserId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        itemInfoDto.setName("Renamed");
+        mvc.perform(MockMvcRequestBuilders.get("/items/" + defaultItemId)
+                        .header("X-Sharer-User-Id", defaultUserId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Renamed")));
+    }
+
+    @Test
+    void getItemETagIsDigestOfResponseBodyTest() throws Exception {
+        when(itemService.getItem(anyLong(), anyLong())).thenReturn(itemInfoDto);
+
+        final MockHttpServletResponse response = mvc.perform(MockMvcRequestBuilders.get("/items/" + defaultItemId)
+                        .header("X-Sharer-User-Id", defaultUserId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        assertEquals("\"" + DigestUtils.md5DigestAsHex(response.getContentAsByteArray()) + "\"",
+                response.getHeader(HttpHeaders.ETAG));
+        assertEquals(mapper.writeValueAsString(itemInfoDto), response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
     @Test
     void getAllItemsTest() throws Exception {
         when(itemService.getAll(anyLong(), any())).thenReturn(Collections.emptyList());
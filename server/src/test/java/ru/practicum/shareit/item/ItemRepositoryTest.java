@@ -5,7 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.MyPageRequest;
@@ -13,6 +13,9 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @DataJpaTest
@@ -48,31 +51,51 @@ public class ItemRepositoryTest {
 
     @Test
     void searchAvailableItemsTest() {
-        final Page<Item> items = itemRepository.search("Item", pageRequest);
-        assertEquals(2, items.getTotalElements());
+        final Slice<ItemDto> items = itemRepository.search("Item", pageRequest);
+        assertEquals(2, items.getNumberOfElements());
     }
 
     @Test
     void searchItemsIgnoringCaseTest() {
-        final Page<Item> items = itemRepository.search("iTeM", pageRequest);
-        assertEquals(2, items.getTotalElements());
+        final Slice<ItemDto> items = itemRepository.search("iTeM", pageRequest);
+        assertEquals(2, items.getNumberOfElements());
     }
 
     @Test
     void searchItemsByFullNameIgnoringCaseTest() {
-        final Page<Item> items = itemRepository.search("itemc", pageRequest);
-        assertEquals(1, items.getTotalElements());
+        final Slice<ItemDto> items = itemRepository.search("itemc", pageRequest);
+        assertEquals(1, items.getNumberOfElements());
     }
 
     @Test
     void searchItemsByFullDescriptionIgnoringCaseTest() {
-        final Page<Item> items = itemRepository.search("ITEMA DESCRIPTION", pageRequest);
-        assertEquals(1, items.getTotalElements());
+        final Slice<ItemDto> items = itemRepository.search("ITEMA DESCRIPTION", pageRequest);
+        assertEquals(1, items.getNumberOfElements());
+    }
+
+    @Test
+    void searchItemsRankedByNameMatchFirstTest() {
+        final Item itemD = itemRepository.save(
+                new Item(null, "Drill", "Fits any itemc-style socket", true, owner, null));
+        final Slice<ItemDto> items = itemRepository.search("itemc", pageRequest);
+        assertEquals(2, items.getNumberOfElements());
+        assertEquals(List.of(itemC.getId(), itemD.getId()),
+                items.stream().map(ItemDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAvailableItemsForSearchIndexTest() {
+        final List<ItemSearchIndex.IndexedItem> items = itemRepository.findByAvailableTrue();
+        assertEquals(List.of(itemA.getId(), itemC.getId()),
+                items.stream().map(ItemSearchIndex.IndexedItem::getId).sorted().collect(Collectors.toList()));
+        assertEquals(itemA.getDescription(), items.stream()
+                .filter(item -> item.getId().equals(itemA.getId()))
+                .findFirst().orElseThrow().getDescription());
     }
 
     @Test
     void searchItemsByNonMatchingTextTest() {
-        final Page<Item> items = itemRepository.search("Non matching text", pageRequest);
-        assertEquals(0, items.getTotalElements());
+        final Slice<ItemDto> items = itemRepository.search("Non matching text", pageRequest);
+        assertEquals(0, items.getNumberOfElements());
     }
 }
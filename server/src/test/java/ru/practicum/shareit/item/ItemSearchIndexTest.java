@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ItemSearchIndexTest {
+
+    private ItemRepository itemRepository;
+    private ItemSearchIndex itemSearchIndex;
+    private final User owner = new User(1L, "Owner", "owner@mail.com");
+
+    @BeforeEach
+    void beforeEach() {
+        itemRepository = mock(ItemRepository.class);
+        itemSearchIndex = new ItemSearchIndex(itemRepository, true);
+        when(itemRepository.findByAvailableTrue()).thenReturn(List.of(
+                indexedItem(1L, "Дрель", "Простая дрель"),
+                indexedItem(2L, "Отвертка", "Аккумуляторная отвертка"),
+                indexedItem(3L, "Шуруповерт", "Аккумуляторный, заменяет дрель и отвертку")
+        ));
+        itemSearchIndex.build();
+    }
+
+    @Test
+    void searchBySubstringIgnoringCaseTest() {
+        assertTrue(itemSearchIndex.isReady());
+        assertEquals(List.of(1L, 3L), itemSearchIndex.search("дРеЛь", 0, 10));
+        assertEquals(List.of(2L, 3L), itemSearchIndex.search("аккумулятор", 0, 10));
+        assertEquals(List.of(3L), itemSearchIndex.search("уруп", 0, 10));
+    }
+
+    @Test
+    void searchRanksNameMatchesFirstTest() {
+        assertEquals(List.of(2L, 3L), itemSearchIndex.search("отверт", 0, 10));
+        assertEquals(List.of(1L, 3L), itemSearchIndex.search("дрел", 0, 10));
+    }
+
+    @Test
+    void searchByShortTextTest() {
+        assertEquals(List.of(1L, 2L, 3L), itemSearchIndex.search("р", 0, 10));
+        assertEquals(List.of(3L), itemSearchIndex.search("шу", 0, 10));
+    }
+
+    @Test
+    void searchDoesNotReturnFalseTrigramMatchesTest() {
+        assertEquals(Collections.emptyList(), itemSearchIndex.search("дрель отвертка", 0, 10));
+        assertEquals(Collections.emptyList(), itemSearchIndex.search("Non matching text", 0, 10));
+    }
+
+    @Test
+    void searchPaginationTest() {
+        assertEquals(List.of(1L, 2L), itemSearchIndex.search("р", 0, 2));
+        assertEquals(List.of(3L), itemSearchIndex.search("р", 2, 2));
+        assertEquals(Collections.emptyList(), itemSearchIndex.search("р", 4, 2));
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 1, 2));
+        assertEquals(List.of(2L), itemSearchIndex.search("отверт", 0, 1));
+        assertEquals(List.of(3L), itemSearchIndex.search("отверт", 1, 1));
+    }
+
+    @Test
+    void indexUpdatesIncrementallyTest() {
+        itemSearchIndex.index(new Item(4L, "Перфоратор", "Мощный", true, owner, null));
+        assertEquals(List.of(4L), itemSearchIndex.search("перфо", 0, 10));
+
+        itemSearchIndex.index(new Item(4L, "Перфоратор", "Мощный", false, owner, null));
+        assertEquals(Collections.emptyList(), itemSearchIndex.search("перфо", 0, 10));
+
+        itemSearchIndex.index(new Item(1L, "Лобзик", "Электрический", true, owner, null));
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(1L), itemSearchIndex.search("лобзик", 0, 10));
+
+        itemSearchIndex.remove(2L);
+        assertEquals(List.of(3L), itemSearchIndex.search("отвертк", 0, 10));
+    }
+
+    @Test
+    void updatesBeforeBuildDoNotLeaveStaleTrigramsTest() {
+        ItemSearchIndex newIndex = new ItemSearchIndex(itemRepository, true);
+        newIndex.index(new Item(1L, "Лобзик", "Электрический", true, owner, null));
+        when(itemRepository.findByAvailableTrue()).thenReturn(List.of(indexedItem(1L, "Пила", "Ручная")));
+        newIndex.build();
+
+        assertEquals(Collections.emptyList(), newIndex.search("лобзик", 0, 10));
+        assertEquals(List.of(1L), newIndex.search("пила", 0, 10));
+
+        newIndex.remove(1L);
+        assertEquals(Collections.emptyList(), newIndex.search("лобзик", 0, 10));
+        assertEquals(Collections.emptyList(), newIndex.search("пила", 0, 10));
+    }
+
+    @Test
+    void disabledIndexIsNotBuiltTest() {
+        ItemSearchIndex disabledIndex = new ItemSearchIndex(itemRepository, false);
+        disabledIndex.build();
+        disabledIndex.index(new Item(4L, "Перфоратор", "Мощный", true, owner, null));
+
+        assertFalse(disabledIndex.isReady());
+        verify(itemRepository, times(1)).findByAvailableTrue();
+    }
+
+    private static ItemSearchIndex.IndexedItem indexedItem(Long id, String name, String description) {
+        return new ItemSearchIndex.IndexedItem() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.PostgresTest;
+import ru.practicum.shareit.QueryPlans;
+import ru.practicum.shareit.SqlStatementCounter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ItemSearchPlanTest extends PostgresTest {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    ItemRepository itemRepository;
+
+    @BeforeAll
+    void beforeAll() {
+        jdbcTemplate.update("insert into users (id, name, email) " +
+                "select x, 'User ' || x, 'user' || x || '@mail.com' from generate_series(1, 100) x");
+        jdbcTemplate.update("insert into items (id, name, description, available, owner_id) " +
+                "select x, case when x % 1000 = 1 then 'Cordless drill ' || x else 'Item ' || x end, " +
+                "case when x % 1000 = 501 then 'Drill bits ' || x else 'Description of item ' || x end, " +
+                "x % 10 <> 0, x % 100 + 1 from generate_series(1, 20000) x");
+        jdbcTemplate.execute("vacuum analyze items");
+    }
+
+    @AfterAll
+    void afterAll() {
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void searchUsesTrigramIndexesTest() {
+        final String search = SqlStatementCounter.capture(() -> itemRepository.search("drill", PageRequest.of(0, 10)));
+        final String plan = QueryPlans.explain(jdbcTemplate, search, "drill", "drill", "drill", 11);
+
+        assertThat(plan, containsString("ix_items_name_trgm"));
+        assertThat(plan, containsString("ix_items_description_trgm"));
+        assertThat(plan, not(containsString("Seq Scan on items")));
+    }
+
+    @Test
+    void searchRanksNameMatchesFirstTest() {
+        final Slice<ItemDto> items = itemRepository.search("DRILL", PageRequest.of(0, 25));
+
+        final List<Long> ids = items.getContent().stream().map(ItemDto::getId).collect(Collectors.toList());
+        assertEquals(List.of(1L, 1001L, 2001L), ids.subList(0, 3));
+        assertEquals(501L, ids.get(20));
+        assertEquals(25, items.getNumberOfElements());
+    }
+}
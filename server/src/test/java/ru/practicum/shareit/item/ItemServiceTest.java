@@ -5,11 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
@@ -40,6 +41,7 @@ public class ItemServiceTest {
     private BookingRepository bookingRepository;
     private CommentRepository commentRepository;
     private ItemRequestRepository itemRequestRepository;
+    private ItemSearchIndex itemSearchIndex;
     private Item item;
     private User user;
     private ItemRequest request;
@@ -55,12 +57,15 @@ public class ItemServiceTest {
     void beforeEach() {
         itemRepository = mock(ItemRepository.class);
         userRepository = mock(UserRepository.class);
+        doCallRealMethod().when(userRepository).checkExists(any());
+        when(userRepository.getExistingReference(any())).thenCallRealMethod();
         bookingRepository = mock(BookingRepository.class);
         commentRepository = mock(CommentRepository.class);
         itemRequestRepository = mock(ItemRequestRepository.class);
+        itemSearchIndex = mock(ItemSearchIndex.class);
 
         itemService = new ItemServiceImpl(itemRepository, userRepository,
-                bookingRepository, commentRepository, itemRequestRepository);
+                bookingRepository, commentRepository, itemRequestRepository, itemSearchIndex);
 
         user = new User(defaultUserId, "Test User", "user@mail.com");
         request = new ItemRequest(1L, "description",
@@ -80,7 +85,8 @@ public class ItemServiceTest {
 
     @Test
     void createItemTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userRepository.getReferenceById(anyLong())).thenReturn(user);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(request));
         when(itemRepository.save(any())).thenReturn(item);
 
@@ -88,9 +94,10 @@ public class ItemServiceTest {
 
         assertEquals(ItemMapper.toItemDto(item), itemDto);
 
-        verify(userRepository, times(1)).findById(defaultUserId);
+        verify(userRepository, times(1)).existsById(defaultUserId);
         verify(itemRequestRepository, times(1)).findById(request.getId());
         verify(itemRepository, times(1)).save(item);
+        verify(itemSearchIndex, times(1)).index(item);
     }
 
     @Test
@@ -99,7 +106,7 @@ public class ItemServiceTest {
         Comment comment = new Comment(1L, commentContent, item, user, LocalDateTime.now());
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.existsBookingByBookerAndEndBefore(any(), any())).thenReturn(true);
+        when(bookingRepository.existsBookingByBookerIdAndEndBefore(any(), any())).thenReturn(true);
         when(commentRepository.save(any())).thenReturn(comment);
 
         final CommentInfoDto commentInfoDto =
@@ -109,7 +116,7 @@ public class ItemServiceTest {
 
         verify(userRepository, times(1)).findById(defaultUserId);
         verify(itemRepository, times(1)).findById(defaultItemId);
-        verify(bookingRepository, times(1)).existsBookingByBookerAndEndBefore(any(), any());
+        verify(bookingRepository, times(1)).existsBookingByBookerIdAndEndBefore(any(), any());
         verify(commentRepository, times(1)).save(any());
     }
 
@@ -119,7 +126,7 @@ public class ItemServiceTest {
         String commentContent = "comment";
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.existsBookingByBookerAndEndBefore(any(), any())).thenReturn(false);
+        when(bookingRepository.existsBookingByBookerIdAndEndBefore(any(), any())).thenReturn(false);
 
         Exception exception = assertThrows(CommentWithoutBookingException.class,
                 () -> itemService.createComment(defaultItemId, new CommentDto(commentContent), userId));
@@ -151,7 +158,8 @@ public class ItemServiceTest {
         Item oldItem = new Item(defaultItemId, oldName, oldDescription, oldAvailable, user, oldRequest);
         Item newItem = new Item(defaultItemId, newName, newDescription, newAvailable, user, newRequest);
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userRepository.getReferenceById(anyLong())).thenReturn(user);
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn((newRequest != null) ? Optional.of(newRequest) : Optional.empty());
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(oldItem));
@@ -166,14 +174,15 @@ public class ItemServiceTest {
         assertEquals(resultAvailable, itemDto.getAvailable());
         assertEquals(resultRequest.getId(), itemDto.getRequestId());
 
-        verify(userRepository, times(1)).findById(defaultUserId);
+        verify(userRepository, times(1)).existsById(defaultUserId);
         verify(itemRepository, times(1)).findById(defaultItemId);
         verify(itemRepository, times(1)).save(any());
     }
 
     @Test
     void operationUpdatingItemItemNotFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userRepository.getReferenceById(anyLong())).thenReturn(user);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
         when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
 
@@ -188,7 +197,8 @@ public class ItemServiceTest {
         Long userId = 100L;
         Item updatingItem = new Item(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
                 new User(userId, "Illegal User", "illegal@mail.com"), item.getRequest());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userRepository.getReferenceById(anyLong())).thenReturn(user);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(updatingItem));
 
@@ -202,7 +212,7 @@ public class ItemServiceTest {
 
     @Test
     void operationUserNotFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyLong())).thenReturn(false);
 
         Exception exception = assertThrows(NonExistentIdException.class,
                 () -> itemService.createItem(ItemMapper.toItemDto(item), defaultUserId));
@@ -214,13 +224,15 @@ public class ItemServiceTest {
     void deleteItemTest() {
         itemService.deleteItem(defaultItemId);
         verify(itemRepository, times(1)).deleteById(defaultItemId);
+        verify(itemSearchIndex, times(1)).remove(defaultItemId);
     }
 
     @Test
     void getItemTest() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(bookingRepository.findFirstByItemAndStartBeforeOrderByStartDesc(any(), any())).thenReturn(lastBooking);
-        when(bookingRepository.findFirstByItemAndStartAfterOrderByStartAsc(any(), any())).thenReturn(nextBooking);
+        when(bookingRepository.findFirstByItemAndStartAfterAndEndAfterOrderByStartAsc(any(), any(), any()))
+                .thenReturn(nextBooking);
         when(commentRepository.findByItemOrderByCreatedDesc(any())).thenReturn(Collections.emptyList());
 
         final ItemInfoDto itemInfoDtoResult = itemService.getItem(defaultItemId, defaultUserId);
@@ -231,7 +243,7 @@ public class ItemServiceTest {
         verify(bookingRepository, times(1))
                 .findFirstByItemAndStartBeforeOrderByStartDesc(any(), any());
         verify(bookingRepository, times(1))
-                .findFirstByItemAndStartAfterOrderByStartAsc(any(), any());
+                .findFirstByItemAndStartAfterAndEndAfterOrderByStartAsc(any(), any(), any());
         verify(commentRepository, times(1)).findByItemOrderByCreatedDesc(item);
     }
 
@@ -263,13 +275,15 @@ public class ItemServiceTest {
     @Test
     void getAllItemsTest() {
         final PageRequest pageRequest = new MyPageRequest(0, 10, Sort.unsorted());
-        final Page<Item> items = new PageImpl<>(Collections.singletonList(item));
+        final Slice<Item> items = new SliceImpl<>(Collections.singletonList(item));
 
-        when(itemRepository.findByOwnerOrderByIdAsc(any(), any())).thenReturn(items);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(bookingRepository.findFirstByItemAndStartBeforeOrderByStartDesc(any(), any())).thenReturn(lastBooking);
-        when(bookingRepository.findFirstByItemAndStartAfterOrderByStartAsc(any(), any())).thenReturn(nextBooking);
-        when(commentRepository.findByItemOrderByCreatedDesc(any())).thenReturn(Collections.emptyList());
+        when(itemRepository.findByOwnerIdOrderByIdAsc(any(), any())).thenReturn(items);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findLastBookingsByItemIds(any(), any()))
+                .thenReturn(Collections.singletonList(lastBooking));
+        when(bookingRepository.findNextBookingsByItemIds(any(), any()))
+                .thenReturn(Collections.singletonList(nextBooking));
+        when(commentRepository.findByItemInOrderByCreatedDesc(any())).thenReturn(Collections.emptyList());
 
         final List<ItemInfoDto> itemDtos = itemService.getAll(defaultUserId, pageRequest);
 
@@ -277,19 +291,56 @@ public class ItemServiceTest {
         assertEquals(1, itemDtos.size());
         assertEquals(itemInfoDto, itemDtos.get(0));
 
-        verify(itemRepository, times(1)).findByOwnerOrderByIdAsc(user, pageRequest);
+        verify(itemRepository, times(1)).findByOwnerIdOrderByIdAsc(user.getId(), pageRequest);
         verify(bookingRepository, times(1))
-                .findFirstByItemAndStartBeforeOrderByStartDesc(any(), any());
+                .findLastBookingsByItemIds(eq(List.of(defaultItemId)), any());
         verify(bookingRepository, times(1))
-                .findFirstByItemAndStartAfterOrderByStartAsc(any(), any());
-        verify(commentRepository, times(1)).findByItemOrderByCreatedDesc(item);
+                .findNextBookingsByItemIds(eq(List.of(defaultItemId)), any());
+        verify(commentRepository, times(1)).findByItemInOrderByCreatedDesc(List.of(item));
+        verify(bookingRepository, never()).findFirstByItemAndStartBeforeOrderByStartDesc(any(), any());
+        verify(bookingRepository, never()).findFirstByItemAndStartAfterAndEndAfterOrderByStartAsc(any(), any(), any());
+        verify(commentRepository, never()).findByItemOrderByCreatedDesc(any());
+    }
+
+    @Test
+    void getAllItemsAfterCursorTest() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any()))
+                .thenReturn(Collections.singletonList(item));
+        when(bookingRepository.findLastBookingsByItemIds(any(), any()))
+                .thenReturn(Collections.singletonList(lastBooking));
+        when(bookingRepository.findNextBookingsByItemIds(any(), any()))
+                .thenReturn(Collections.singletonList(nextBooking));
+        when(commentRepository.findByItemInOrderByCreatedDesc(any())).thenReturn(Collections.emptyList());
+
+        final List<ItemInfoDto> itemDtos = itemService.getAll(defaultUserId, PageCursor.of(0L), 10);
+
+        assertEquals(List.of(itemInfoDto), itemDtos);
+        verify(itemRepository, times(1))
+                .findByOwnerIdAndIdGreaterThanOrderByIdAsc(user.getId(), 0L, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void getAllItemsWithoutItemsTest() {
+        final PageRequest pageRequest = new MyPageRequest(0, 10, Sort.unsorted());
+
+        when(itemRepository.findByOwnerIdOrderByIdAsc(any(), any()))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        final List<ItemInfoDto> itemDtos = itemService.getAll(defaultUserId, pageRequest);
+
+        assertNotNull(itemDtos);
+        assertEquals(0, itemDtos.size());
+
+        verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     @Test
     void searchItemTest() {
         final String searchText = "Sample text";
         final PageRequest pageRequest = new MyPageRequest(0, 10, Sort.unsorted());
-        final Page<Item> items = new PageImpl<>(Collections.singletonList(item));
+        final Slice<ItemDto> items = new SliceImpl<>(Collections.singletonList(ItemMapper.toItemDto(item)));
 
         when(itemRepository.search(anyString(), any())).thenReturn(items);
 
@@ -301,6 +352,25 @@ public class ItemServiceTest {
         verify(itemRepository, times(1)).search(searchText, pageRequest);
     }
 
+    @Test
+    void searchItemByIndexTest() {
+        final String searchText = "Sample text";
+        final PageRequest pageRequest = new MyPageRequest(10, 5, Sort.unsorted());
+        final Item otherItem = new Item(2L, "Other Item", "Other description", true, user, null);
+
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(anyString(), anyLong(), anyInt())).thenReturn(List.of(2L, 1L));
+        when(itemRepository.findItemDtosByIdIn(any()))
+                .thenReturn(List.of(ItemMapper.toItemDto(item), ItemMapper.toItemDto(otherItem)));
+
+        final List<ItemDto> itemDtos = itemService.searchItem(searchText, pageRequest);
+
+        assertEquals(List.of(ItemMapper.toItemDto(otherItem), ItemMapper.toItemDto(item)), itemDtos);
+        verify(itemSearchIndex, times(1)).search(searchText, 10, 5);
+        verify(itemRepository, times(1)).findItemDtosByIdIn(List.of(2L, 1L));
+        verify(itemRepository, never()).search(any(), any());
+    }
+
     @Test
     void searchItemByBlancStringTest() {
         final String searchText = "";
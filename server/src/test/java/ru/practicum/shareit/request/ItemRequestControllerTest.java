@@ -6,11 +6,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.ResourceETag;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 
@@ -23,6 +27,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ItemRequestController.class)
+@Import(ResourceETag.class)
 public class ItemRequestControllerTest {
 
     @MockBean
@@ -31,6 +36,8 @@ public class ItemRequestControllerTest {
     @Autowired
     private MockMvc mvc;
     @Autowired
+    private ResourceETag resourceETag;
+    @Autowired
     private ObjectMapper mapper;
 
     private final Long defaultRequestId = 1L;
@@ -76,6 +83,17 @@ public class ItemRequestControllerTest {
         verify(itemRequestService, times(1)).getItemRequest(defaultRequestId, defaultUserId);
     }
 
+    @Test
+    void getItemRequestNotModifiedTest() throws Exception {
+        when(itemRequestService.getItemRequest(anyLong(), anyLong())).thenReturn(itemRequestInfoDto);
+
+        mvc.perform(MockMvcRequestBuilders.get("/requests/" + defaultRequestId)
+                        .header("X-Sharer-User-Id", defaultUserId)
+                        .header(HttpHeaders.IF_NONE_MATCH, resourceETag.of(itemRequestInfoDto)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getAllForUserTest() throws Exception {
         when(itemRequestService.getAllForUser(anyLong())).thenReturn(Collections.emptyList());
@@ -88,6 +106,38 @@ public class ItemRequestControllerTest {
         verify(itemRequestService, times(1)).getAllForUser(defaultUserId);
     }
 
+    @Test
+    void getAllForUserPagedTest() throws Exception {
+        when(itemRequestService.getAllForUser(anyLong(), any(MyPageRequest.class)))
+                .thenReturn(Collections.singletonList(itemRequestInfoDto));
+
+        mvc.perform(MockMvcRequestBuilders.get("/requests?from=2&size=1")
+                        .header("X-Sharer-User-Id", defaultUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(defaultRequestId.intValue())))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(defaultCreated, defaultRequestId).encode()));
+
+        verify(itemRequestService, times(1))
+                .getAllForUser(defaultUserId, new MyPageRequest(2, 1, Sort.unsorted()));
+        verify(itemRequestService, never()).getAllForUser(defaultUserId);
+    }
+
+    @Test
+    void getAllForUserAfterCursorTest() throws Exception {
+        final PageCursor after = PageCursor.of(defaultCreated, defaultRequestId);
+        when(itemRequestService.getAllForUser(anyLong(), any(PageCursor.class), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        mvc.perform(MockMvcRequestBuilders.get("/requests?after=" + after.encode())
+                        .header("X-Sharer-User-Id", defaultUserId))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        verify(itemRequestService, times(1)).getAllForUser(defaultUserId, after, 10);
+    }
+
     @Test
     void getAllTest() throws Exception {
         when(itemRequestService.getAll(anyLong(), any())).thenReturn(Collections.emptyList());
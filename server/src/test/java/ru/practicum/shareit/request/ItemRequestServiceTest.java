@@ -2,13 +2,15 @@ package ru.practicum.shareit.request;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.exception.NonExistentIdException;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.user.User;
@@ -26,6 +28,7 @@ public class ItemRequestServiceTest {
 
     private ItemRequestService itemRequestService;
     private ItemRequestRepository itemRequestRepository;
+    private ItemRepository itemRepository;
     private UserRepository userRepository;
     private User requester;
     private ItemRequest itemRequest;
@@ -35,8 +38,10 @@ public class ItemRequestServiceTest {
 
     @BeforeEach
     void beforeEach() {
-        ItemRepository itemRepository = mock(ItemRepository.class);
+        itemRepository = mock(ItemRepository.class);
         userRepository = mock(UserRepository.class);
+        doCallRealMethod().when(userRepository).checkExists(any());
+        when(userRepository.getExistingReference(any())).thenCallRealMethod();
         itemRequestRepository = mock(ItemRequestRepository.class);
 
         itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, itemRepository, userRepository);
@@ -50,7 +55,8 @@ public class ItemRequestServiceTest {
 
     @Test
     void createItemRequestTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userRepository.getReferenceById(anyLong())).thenReturn(requester);
         when(itemRequestRepository.save(any())).thenReturn(itemRequest);
 
         final ItemRequestInfoDto itemRequestInfoDto
@@ -58,13 +64,13 @@ public class ItemRequestServiceTest {
 
         assertEquals(ItemRequestMapper.toItemRequestInfoDto(itemRequest, null), itemRequestInfoDto);
 
-        verify(userRepository, times(1)).findById(requester.getId());
+        verify(userRepository, times(1)).existsById(requester.getId());
         verify(itemRequestRepository, times(1)).save(any());
     }
 
     @Test
     void operationUserNotFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyLong())).thenReturn(false);
         when(itemRequestRepository.save(any())).thenReturn(itemRequest);
 
         Exception exception = assertThrows(NonExistentIdException.class,
@@ -75,7 +81,7 @@ public class ItemRequestServiceTest {
 
     @Test
     void getItemRequestTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
 
         final ItemRequestInfoDto itemRequestInfoDto =
@@ -83,12 +89,14 @@ public class ItemRequestServiceTest {
 
         assertEquals(ItemRequestMapper.toItemRequestInfoDto(itemRequest, Collections.emptyList()), itemRequestInfoDto);
 
+        verify(userRepository, times(1)).existsById(requester.getId());
+        verify(userRepository, never()).findById(anyLong());
         verify(itemRequestRepository, times(1)).findById(itemRequest.getId());
     }
 
     @Test
     void operationItemRequestNotFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
+        when(userRepository.existsById(anyLong())).thenReturn(true);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(NonExistentIdException.class,
@@ -100,10 +108,10 @@ public class ItemRequestServiceTest {
     @Test
     void getAllTest() {
         final PageRequest pageRequest = new MyPageRequest(0, 10, Sort.unsorted());
-        final Page<ItemRequest> requests = new PageImpl<>(Collections.singletonList(itemRequest));
+        final Slice<ItemRequest> requests = new SliceImpl<>(Collections.singletonList(itemRequest));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
-        when(itemRequestRepository.findByRequesterNotOrderByCreatedDesc(any(), any())).thenReturn(requests);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDescIdDesc(any(), any())).thenReturn(requests);
 
         final List<ItemRequestInfoDto> itemRequestInfoDtos = itemRequestService.getAll(requester.getId(), pageRequest);
 
@@ -112,17 +120,32 @@ public class ItemRequestServiceTest {
         assertEquals(ItemRequestMapper.toItemRequestInfoDto(itemRequest, Collections.emptyList()),
                 itemRequestInfoDtos.get(0));
 
-        verify(userRepository, times(1)).findById(requester.getId());
+        verify(userRepository, times(1)).existsById(requester.getId());
         verify(itemRequestRepository, times(1))
-                .findByRequesterNotOrderByCreatedDesc(requester, pageRequest);
+                .findByRequesterIdNotOrderByCreatedDescIdDesc(requester.getId(), pageRequest);
     }
 
     @Test
-    void getAllForUserTest() {
-        final List<ItemRequest> requests = Collections.singletonList(itemRequest);
+    void getAllAfterCursorTest() {
+        final PageCursor after = PageCursor.of(defaultCreated.plusDays(1), 5L);
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotBefore(any(), any(), anyLong(), any()))
+                .thenReturn(Collections.singletonList(itemRequest));
+
+        final List<ItemRequestInfoDto> itemRequestInfoDtos = itemRequestService.getAll(requester.getId(), after, 10);
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
-        when(itemRequestRepository.findByRequesterOrderByCreatedDesc(any())).thenReturn(requests);
+        assertEquals(List.of(ItemRequestMapper.toItemRequestInfoDto(itemRequest, Collections.emptyList())),
+                itemRequestInfoDtos);
+        verify(itemRequestRepository, times(1)).findByRequesterIdNotBefore(requester.getId(),
+                after.getPosition(), after.getId(), PageRequest.of(0, 10));
+    }
+
+    @Test
+    void getAllForUserTest() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(any()))
+                .thenReturn(Collections.singletonList(itemRequest));
 
         final List<ItemRequestInfoDto> itemRequestInfoDtos = itemRequestService.getAllForUser(requester.getId());
 
@@ -131,8 +154,71 @@ public class ItemRequestServiceTest {
         assertEquals(ItemRequestMapper.toItemRequestInfoDto(itemRequest, Collections.emptyList()),
                 itemRequestInfoDtos.get(0));
 
-        verify(userRepository, times(1)).findById(requester.getId());
+        verify(userRepository, times(1)).existsById(requester.getId());
+        verify(itemRequestRepository, times(1))
+                .findByRequesterIdOrderByCreatedDescIdDesc(requester.getId());
+    }
+
+    @Test
+    void getAllForUserPagedTest() {
+        final PageRequest pageRequest = new MyPageRequest(0, 1, Sort.unsorted());
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(any(), any()))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(itemRequest)));
+
+        final List<ItemRequestInfoDto> itemRequestInfoDtos = itemRequestService.getAllForUser(requester.getId(),
+                pageRequest);
+
+        assertEquals(List.of(ItemRequestMapper.toItemRequestInfoDto(itemRequest, Collections.emptyList())),
+                itemRequestInfoDtos);
         verify(itemRequestRepository, times(1))
-                .findByRequesterOrderByCreatedDesc(requester);
+                .findByRequesterIdOrderByCreatedDescIdDesc(requester.getId(), pageRequest);
+        verify(itemRequestRepository, never()).findByRequesterIdOrderByCreatedDescIdDesc(requester.getId());
+    }
+
+    @Test
+    void getAllForUserAfterCursorTest() {
+        final PageCursor after = PageCursor.of(defaultCreated.plusDays(1), 5L);
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdBefore(any(), any(), anyLong(), any()))
+                .thenReturn(Collections.singletonList(itemRequest));
+
+        final List<ItemRequestInfoDto> itemRequestInfoDtos = itemRequestService.getAllForUser(requester.getId(),
+                after, 10);
+
+        assertEquals(List.of(ItemRequestMapper.toItemRequestInfoDto(itemRequest, Collections.emptyList())),
+                itemRequestInfoDtos);
+        verify(itemRequestRepository, times(1)).findByRequesterIdBefore(requester.getId(),
+                after.getPosition(), after.getId(), PageRequest.of(0, 10));
+    }
+
+    @Test
+    void getAllGroupsItemsOfAllRequestsTest() {
+        final PageRequest pageRequest = new MyPageRequest(0, 10, Sort.unsorted());
+        final User owner = new User(2L, "Owner User", "owner@mail.com");
+        final ItemRequest otherItemRequest = new ItemRequest(2L, "other", requester, defaultCreated.minusDays(1));
+        final ItemRequest emptyItemRequest = new ItemRequest(3L, "empty", requester, defaultCreated.minusDays(2));
+        final Item item = new Item(1L, "Item", "Item description", true, owner, itemRequest);
+        final Item otherItem = new Item(2L, "Other", "Other description", true, owner, otherItemRequest);
+        final Item secondItem = new Item(3L, "Second", "Second description", true, owner, itemRequest);
+        final List<ItemRequest> requests = List.of(itemRequest, otherItemRequest, emptyItemRequest);
+
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDescIdDesc(any(), any()))
+                .thenReturn(new SliceImpl<>(requests));
+        when(itemRepository.findByRequestInOrderByIdAsc(any())).thenReturn(List.of(item, otherItem, secondItem));
+
+        final List<ItemRequestInfoDto> itemRequestInfoDtos = itemRequestService.getAll(owner.getId(), pageRequest);
+
+        assertEquals(List.of(
+                ItemRequestMapper.toItemRequestInfoDto(itemRequest, List.of(item, secondItem)),
+                ItemRequestMapper.toItemRequestInfoDto(otherItemRequest, List.of(otherItem)),
+                ItemRequestMapper.toItemRequestInfoDto(emptyItemRequest, Collections.emptyList())
+        ), itemRequestInfoDtos);
+
+        verify(itemRepository, times(1)).findByRequestInOrderByIdAsc(requests);
+        verifyNoMoreInteractions(itemRepository);
     }
 }
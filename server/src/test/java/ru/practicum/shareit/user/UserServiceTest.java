@@ -5,8 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.MyPageRequest;
@@ -110,10 +110,10 @@ public class UserServiceTest {
 
     @Test
     void getAllUsersTest() {
-        final Page<User> users = new PageImpl<>(Collections.singletonList(user));
+        final Slice<User> users = new SliceImpl<>(Collections.singletonList(user));
         final PageRequest pageRequest = new MyPageRequest(0, 10, Sort.unsorted());
 
-        when(userRepository.findAll(new MyPageRequest(0, 10, Sort.unsorted()))).thenReturn(users);
+        when(userRepository.findAllByOrderByIdAsc(new MyPageRequest(0, 10, Sort.unsorted()))).thenReturn(users);
 
         final List<UserDto> userDtos = userService.getAll(pageRequest);
 
@@ -121,7 +121,7 @@ public class UserServiceTest {
         assertEquals(1, userDtos.size());
         assertEquals(UserMapper.toUserDto(user), userDtos.get(0));
 
-        verify(userRepository, times(1)).findAll(pageRequest);
+        verify(userRepository, times(1)).findAllByOrderByIdAsc(pageRequest);
     }
 
     private static Stream<Arguments> updateUserValues() {
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.tracing;
+
+import zipkin2.Span;
+import zipkin2.codec.SpanBytesEncoder;
+import zipkin2.reporter.Reporter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Пишет завершённые спаны в файл построчно в формате Zipkin JSON v2, без внешнего коллектора.
+ */
+public class FileSpanReporter implements Reporter<Span>, Closeable {
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final OutputStream out;
+
+    public FileSpanReporter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    @Override
+    public synchronized void report(Span span) {
+        try {
+            out.write(SpanBytesEncoder.JSON_V2.encode(span));
+            out.write(NEW_LINE);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
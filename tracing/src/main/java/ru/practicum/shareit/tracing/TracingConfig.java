@@ -0,0 +1,30 @@
+package ru.practicum.shareit.tracing;
+
+import brave.handler.SpanHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zipkin2.reporter.brave.ZipkinSpanHandler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Выгрузка спанов в файл, включается свойством {@code shareit.tracing.file}. Модуль подключают и шлюз,
+ * и сервер; конфигурация находится их сканированием пакета {@code ru.practicum.shareit}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.tracing.file")
+public class TracingConfig {
+
+    @Bean(destroyMethod = "close")
+    public FileSpanReporter fileSpanReporter(@Value("${shareit.tracing.file}") Path file) throws IOException {
+        return new FileSpanReporter(file);
+    }
+
+    @Bean
+    public SpanHandler fileSpanHandler(FileSpanReporter fileSpanReporter) {
+        return ZipkinSpanHandler.create(fileSpanReporter);
+    }
+}